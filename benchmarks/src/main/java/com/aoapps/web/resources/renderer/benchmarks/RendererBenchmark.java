@@ -0,0 +1,176 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer.benchmarks;
+
+import com.aoapps.html.Document;
+import com.aoapps.web.resources.registry.Group;
+import com.aoapps.web.resources.registry.Registry;
+import com.aoapps.web.resources.registry.Script;
+import com.aoapps.web.resources.registry.Style;
+import com.aoapps.web.resources.renderer.Renderer;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link Renderer} hot path over synthetic registries.
+ *
+ * <p>Resources are distributed round-robin over the groups of each registry, and all groups are activated.  The
+ * rendered HTML is written to a discarding {@link Writer}.</p>
+ *
+ * <p>Build with {@code mvn package}, then run with {@code java -jar target/benchmarks.jar}.  Add {@code -prof gc}
+ * for bytes allocated per operation.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RendererBenchmark {
+
+  /**
+   * Discards all output.
+   */
+  private static final class NullWriter extends Writer {
+
+    @Override
+    public void write(int c) {
+      // Discard
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      // Discard
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+      // Discard
+    }
+
+    @Override
+    public void flush() {
+      // Nothing to flush
+    }
+
+    @Override
+    public void close() {
+      // Nothing to close
+    }
+  }
+
+  /**
+   * The number of groups in each registry.
+   */
+  @Param({"1", "10", "100"})
+  public int groups;
+
+  /**
+   * The total number of styles, and separately scripts, in each registry.
+   */
+  @Param({"5", "50", "500"})
+  public int resources;
+
+  /**
+   * The number of registries.
+   */
+  @Param({"1", "3"})
+  public int registries;
+
+  private ServletContext servletContext;
+  private HttpServletResponse response;
+  private Renderer renderer;
+  private Document document;
+  private Map<Group.Name, Boolean> activations;
+  private List<Registry> registryList;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    servletContext = ServletMocks.newServletContext();
+    response = ServletMocks.newResponse();
+    renderer = Renderer.get(servletContext);
+    document = new Document(new NullWriter());
+    List<Group.Name> names = new ArrayList<>(groups);
+    activations = new HashMap<>();
+    for (int g = 0; g < groups; g++) {
+      Group.Name name = new Group.Name("group-" + g);
+      names.add(name);
+      activations.put(name, true);
+    }
+    registryList = new ArrayList<>(registries);
+    for (int r = 0; r < registries; r++) {
+      Registry registry = new Registry();
+      for (int i = 0; i < resources; i++) {
+        Group group = registry.getGroup(names.get(i % groups), true);
+        group.styles.add(Style.builder().uri("/styles/registry-" + r + "/style-" + i + ".css").build());
+        group.scripts.add(Script.builder().uri("/scripts/registry-" + r + "/script-" + i + ".js").build());
+      }
+      registryList.add(registry);
+    }
+  }
+
+  /**
+   * Each benchmark is a new request, since resolutions are retained for the duration of the request.
+   */
+  @Benchmark
+  public void renderStyles() throws IOException {
+    HttpServletRequest request = ServletMocks.newRequest(servletContext);
+    renderer.renderStyles(request, response, document, false, activations, registryList);
+  }
+
+  @Benchmark
+  public void renderScripts() throws IOException {
+    HttpServletRequest request = ServletMocks.newRequest(servletContext);
+    for (Script.Position position : Script.Position.values()) {
+      renderer.renderScripts(request, response, document, false, activations, position, registryList);
+    }
+  }
+
+  @Benchmark
+  public void renderPage() throws IOException {
+    HttpServletRequest request = ServletMocks.newRequest(servletContext);
+    renderer.renderHead(request, response, document, false, activations, registryList)
+        .renderScripts(request, response, document, Script.Position.BODY_END);
+  }
+}
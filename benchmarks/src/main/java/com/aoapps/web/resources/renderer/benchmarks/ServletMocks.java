@@ -0,0 +1,162 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Minimal servlet objects for benchmarking outside of a container.
+ *
+ * <p>Attributes are backed by maps, URLs are not encoded, and no resources are found, so last-modified parameters
+ * are never added.  All other methods return {@code null}, {@code false}, or zero.</p>
+ */
+final class ServletMocks {
+
+  /** Make no instances. */
+  private ServletMocks() {
+    throw new AssertionError();
+  }
+
+  private static Object defaultValue(Class<?> returnType) {
+    if (returnType == boolean.class) {
+      return false;
+    } else if (returnType == int.class) {
+      return 0;
+    } else if (returnType == long.class) {
+      return 0L;
+    } else if (returnType.isPrimitive() && returnType != void.class) {
+      throw new UnsupportedOperationException("Unexpected primitive return type: " + returnType);
+    } else {
+      return null;
+    }
+  }
+
+  private static <T> T newProxy(Class<T> iface, Map<String, Object> attributes, Handler handler) {
+    return iface.cast(Proxy.newProxyInstance(
+        ServletMocks.class.getClassLoader(),
+        new Class<?>[]{iface},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getAttribute":
+              return attributes.get((String) args[0]);
+            case "setAttribute":
+              if (args[1] == null) {
+                attributes.remove((String) args[0]);
+              } else {
+                attributes.put((String) args[0], args[1]);
+              }
+              return null;
+            case "removeAttribute":
+              attributes.remove((String) args[0]);
+              return null;
+            case "getAttributeNames":
+              return Collections.enumeration(attributes.keySet());
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            case "toString":
+              return iface.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+              Object value = handler.handle(method.getName(), args);
+              return value != null ? value : defaultValue(method.getReturnType());
+          }
+        }
+    ));
+  }
+
+  @FunctionalInterface
+  private interface Handler {
+    Object handle(String methodName, Object[] args);
+  }
+
+  static ServletContext newServletContext() {
+    return newProxy(ServletContext.class, new ConcurrentHashMap<>(), (methodName, args) -> {
+      switch (methodName) {
+        case "getContextPath":
+          return "";
+        case "getMajorVersion":
+          return 3;
+        case "getMinorVersion":
+          return 1;
+        default:
+          return null;
+      }
+    });
+  }
+
+  static HttpServletRequest newRequest(ServletContext servletContext) {
+    return newProxy(HttpServletRequest.class, new ConcurrentHashMap<>(), (methodName, args) -> {
+      switch (methodName) {
+        case "getServletContext":
+          return servletContext;
+        case "getContextPath":
+          return "";
+        case "getServletPath":
+          return "/index.jsp";
+        case "getRequestURI":
+          return "/index.jsp";
+        case "getMethod":
+          return "GET";
+        case "getScheme":
+          return "http";
+        case "getServerName":
+          return "localhost";
+        case "getServerPort":
+          return 80;
+        case "getLocale":
+          return Locale.ENGLISH;
+        case "getCharacterEncoding":
+          return "UTF-8";
+        default:
+          return null;
+      }
+    });
+  }
+
+  static HttpServletResponse newResponse() {
+    return newProxy(HttpServletResponse.class, new ConcurrentHashMap<>(), (methodName, args) -> {
+      switch (methodName) {
+        case "encodeURL":
+        case "encodeRedirectURL":
+          return args[0];
+        case "getLocale":
+          return Locale.ENGLISH;
+        case "getCharacterEncoding":
+          return "UTF-8";
+        case "getContentType":
+          return "text/html;charset=UTF-8";
+        default:
+          return null;
+      }
+    });
+  }
+}
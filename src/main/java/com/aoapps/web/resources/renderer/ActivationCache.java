@@ -0,0 +1,163 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.web.resources.registry.Group;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches resolved activations, so that repeated resolution of the same registry state shares a single,
+ * unmodifiable set of {@linkplain Group.Name group names}.
+ *
+ * <p>Activations are resolved into a {@link BitSet} of {@linkplain GroupIds group IDs}, applying the activations of
+ * each registry in order, followed by the additional activations.  The bit set is then the key to the cache of
+ * resolved sets, so a hit performs no set construction and compares only words.</p>
+ *
+ * <p>Since equal inputs resolve to the same instance, the resolved set may be used as an identity key
+ * by further caches.  Once the maximum number of {@linkplain GroupIds group IDs} have been assigned, activations
+ * involving unassigned groups are resolved into a new set on each call, so further caches should fall back to
+ * {@link Set#equals(java.lang.Object)} when the identity differs.</p>
+ */
+final class ActivationCache {
+
+  private static final Logger logger = Logger.getLogger(ActivationCache.class.getName());
+
+  /**
+   * The maximum number of distinct activation states retained.
+   */
+  private static final int MAX_SIZE = 1000;
+
+  private final GroupIds groupIds = new GroupIds();
+
+  private final LruCache<BitSet, Set<Group.Name>> cache = new LruCache<>(MAX_SIZE);
+
+  private final AtomicBoolean overflowLogged = new AtomicBoolean();
+
+  /**
+   * Resolves the set of activated groups.
+   *
+   * @param  registryActivations  The activations of each registry, in order, applied first.
+   *                              Empty when registered activations are not applied.
+   *
+   * @param  activations  Additional activations applied after those configured in the registries.
+   *                      Entries with a {@code null} value are ignored.
+   *
+   * @return  The unmodifiable set of groups (which may be empty).
+   */
+  Set<Group.Name> resolve(List<Map<Group.Name, Boolean>> registryActivations, Map<Group.Name, Boolean> activations) {
+    BitSet bits = new BitSet();
+    for (Map<Group.Name, Boolean> map : registryActivations) {
+      for (Map.Entry<Group.Name, Boolean> entry : map.entrySet()) {
+        assert entry.getValue() != null : "null activations are removed, not set as an entry";
+        if (!apply(bits, entry.getKey(), entry.getValue())) {
+          return resolveUncached(registryActivations, activations);
+        }
+      }
+    }
+    if (activations != null) {
+      for (Map.Entry<Group.Name, Boolean> entry : activations.entrySet()) {
+        Boolean activated = entry.getValue();
+        if (activated != null && !apply(bits, entry.getKey(), activated)) {
+          return resolveUncached(registryActivations, activations);
+        }
+      }
+    }
+    if (bits.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<Group.Name> groups = cache.get(bits);
+    if (groups == null) {
+      Set<Group.Name> newGroups = new HashSet<>(bits.cardinality() * 4 / 3 + 1);
+      for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+        newGroups.add(groupIds.getName(id));
+      }
+      groups = Collections.unmodifiableSet(newGroups);
+      // The bit set is not modified after this point, so is safe to use as the key
+      cache.put(bits, groups);
+    }
+    return groups;
+  }
+
+  /**
+   * Applies a single activation.
+   *
+   * @return  {@code false} when the group could not be assigned an ID
+   */
+  private boolean apply(BitSet bits, Group.Name name, boolean activated) {
+    int id = groupIds.getId(name);
+    if (id == -1) {
+      return false;
+    }
+    if (activated) {
+      bits.set(id);
+    } else {
+      bits.clear(id);
+    }
+    return true;
+  }
+
+  /**
+   * Resolves without the cache, used once the maximum number of group IDs have been assigned.
+   * Logs a warning the first time.
+   */
+  private Set<Group.Name> resolveUncached(
+      List<Map<Group.Name, Boolean>> registryActivations,
+      Map<Group.Name, Boolean> activations
+  ) {
+    if (overflowLogged.compareAndSet(false, true) && logger.isLoggable(Level.WARNING)) {
+      logger.warning("Maximum number of group IDs assigned, resolving additional groups without the cache");
+    }
+    Set<Group.Name> groups = new HashSet<>();
+    for (Map<Group.Name, Boolean> map : registryActivations) {
+      for (Map.Entry<Group.Name, Boolean> entry : map.entrySet()) {
+        if (entry.getValue()) {
+          groups.add(entry.getKey());
+        } else {
+          groups.remove(entry.getKey());
+        }
+      }
+    }
+    if (activations != null) {
+      for (Map.Entry<Group.Name, Boolean> entry : activations.entrySet()) {
+        Boolean activated = entry.getValue();
+        if (activated != null) {
+          if (activated) {
+            groups.add(entry.getKey());
+          } else {
+            groups.remove(entry.getKey());
+          }
+        }
+      }
+    }
+    return Collections.unmodifiableSet(groups);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Combines consecutive resources into {@linkplain Bundles bundles}.
+ *
+ * <p>A run of two or more consecutive resources within this application and with the same
+ * {@linkplain #isSameAttributes(java.lang.Object, java.lang.Object) attributes} is replaced by a single resource
+ * for the bundle.  The order of resources is unchanged.  A resource that
+ * {@linkplain #startsBundle(java.lang.String, java.lang.String, boolean) must start a bundle} ends the current run.
+ * When a bundle cannot be built, its resources are left unbundled.</p>
+ *
+ * @param  <R>  The type of resource
+ */
+abstract class Bundler<R> {
+
+  private static final Logger logger = Logger.getLogger(Bundler.class.getName());
+
+  private final UrlCache urlCache;
+  private final Bundles bundles;
+  private final Bundles.Type type;
+
+  Bundler(UrlCache urlCache, Bundles bundles, Bundles.Type type) {
+    this.urlCache = urlCache;
+    this.bundles = bundles;
+    this.type = type;
+  }
+
+  /**
+   * Gets the bundles this bundler registers with.
+   */
+  final Bundles getBundles() {
+    return bundles;
+  }
+
+  /**
+   * Gets the URI of a resource.
+   */
+  abstract String getUri(R resource);
+
+  /**
+   * Checks if two resources have the same attributes, and thus may be bundled together.
+   */
+  abstract boolean isSameAttributes(R resource1, R resource2);
+
+  /**
+   * Creates the resource for a bundle, with the same attributes as the first resource in the bundle.
+   */
+  abstract R newBundle(R first, String uri);
+
+  /**
+   * Checks if a resource may only be the first resource in a bundle.
+   *
+   * @param  resourcePath  The context-relative path of the resource
+   * @param  url  The built URL of the resource, without response encoding
+   * @param  cachedOnly  When no resource may be read, in which case an unknown resource should start a bundle
+   */
+  boolean startsBundle(String resourcePath, String url, boolean cachedOnly) throws IOException {
+    return false;
+  }
+
+  /**
+   * Checks if a resource may be bundled.
+   */
+  private boolean isBundleable(R resource) {
+    String uri = getUri(resource);
+    return uri != null && !Bundles.isBundle(uri) && ResourcePaths.getResourcePath(uri) != null;
+  }
+
+  /**
+   * Bundles the given resources.
+   *
+   * @param  resources  The sorted and filtered resources
+   *
+   * @return  The unmodifiable resources with bundles, or {@code resources} itself when nothing bundled
+   */
+  final List<R> bundle(HttpServletRequest request, HttpServletResponse response, List<R> resources) throws IOException {
+    return bundle(request, response, resources, false);
+  }
+
+  /**
+   * Bundles the given resources using only bundles already registered, without reading or building any bundle.
+   *
+   * @param  resources  The sorted and filtered resources
+   *
+   * @return  The unmodifiable resources with bundles, or {@code resources} itself when nothing bundled
+   */
+  final List<R> bundleCached(HttpServletRequest request, HttpServletResponse response, List<R> resources)
+      throws IOException {
+    return bundle(request, response, resources, true);
+  }
+
+  private List<R> bundle(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      List<R> resources,
+      boolean cachedOnly
+  ) throws IOException {
+    int size = resources.size();
+    if (size < 2) {
+      return resources;
+    }
+    List<R> result = new ArrayList<>(size);
+    boolean bundled = false;
+    int i = 0;
+    while (i < size) {
+      R first = resources.get(i);
+      int end = i + 1;
+      if (isBundleable(first)) {
+        while (
+            end < size
+                && isBundleable(resources.get(end))
+                && isSameAttributes(first, resources.get(end))
+                && !startsBundle(request, response, getUri(resources.get(end)), cachedOnly)
+        ) {
+          end++;
+        }
+      }
+      String uri = null;
+      if (end - i > 1) {
+        List<String> resourcePaths = new ArrayList<>(end - i);
+        List<String> urls = new ArrayList<>(end - i);
+        for (int j = i; j < end; j++) {
+          String resourceUri = getUri(resources.get(j));
+          resourcePaths.add(ResourcePaths.getResourcePath(resourceUri));
+          urls.add(getUrl(request, response, resourceUri));
+        }
+        if (cachedOnly) {
+          uri = bundles.getRegistered(urls);
+        } else {
+          try {
+            uri = bundles.register(type, request.getContextPath(), resourcePaths, urls);
+          } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to bundle: " + resourcePaths, e);
+          }
+        }
+      }
+      if (uri != null) {
+        result.add(newBundle(first, uri));
+        bundled = true;
+      } else {
+        result.addAll(resources.subList(i, end));
+      }
+      i = end;
+    }
+    return bundled ? Collections.unmodifiableList(result) : resources;
+  }
+
+  private boolean startsBundle(HttpServletRequest request, HttpServletResponse response, String uri, boolean cachedOnly)
+      throws IOException {
+    return startsBundle(ResourcePaths.getResourcePath(uri), getUrl(request, response, uri), cachedOnly);
+  }
+
+  /**
+   * Gets the built URL of a resource, without response encoding, or the URI itself when the URL cannot be built.
+   */
+  private String getUrl(HttpServletRequest request, HttpServletResponse response, String uri) throws IOException {
+    String url = urlCache.getURL(request, response, uri);
+    return url == null ? uri : url;
+  }
+}
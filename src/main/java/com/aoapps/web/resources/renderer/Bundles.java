@@ -0,0 +1,379 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.ServletContext;
+
+/**
+ * Registers and builds bundles: the concatenation of multiple resources, served as one.
+ *
+ * <p>A bundle is built when registered during rendering, from the resources it contains, and stored in a
+ * {@link ContentStore} named by a hash of its content.  The content of a bundle never changes and may be cached
+ * indefinitely.  The store persists across restarts and may be shared by a cluster, so a bundle URL remains valid
+ * after a restart and on every server sharing the store.</p>
+ *
+ * <p>The bundle URI is cached by the built URLs of its resources, which include any last-modified or fingerprint
+ * parameter, so a bundle is re-built whenever any of its resources change.</p>
+ */
+final class Bundles {
+
+  private static final Logger logger = Logger.getLogger(Bundles.class.getName());
+
+  /**
+   * The context-relative path prefix of all bundles.
+   */
+  static final String PATH_PREFIX = "/ao-web-resources-renderer/bundles/";
+
+  /**
+   * The maximum number of bundle URIs retained.
+   */
+  private static final int MAX_BUNDLES = 1000;
+
+  /**
+   * The maximum number of resources retained in the cache of which stylesheets use {@code @import}.
+   */
+  private static final int MAX_IMPORTS = 1000;
+
+  private static final String ALGORITHM = "SHA-256";
+
+  /**
+   * The number of bytes of the hash used as the bundle ID.
+   */
+  private static final int ID_BYTES = 16;
+
+  /**
+   * The types of bundles.
+   */
+  enum Type {
+    STYLE(".css", "text/css") {
+      @Override
+      String transform(String contextPath, String resourcePath, String content) {
+        return rewriteCss(contextPath, resourcePath, content);
+      }
+    },
+    SCRIPT(".js", "application/javascript") {
+      /**
+       * Terminates each script, in case it does not end with a semicolon.
+       */
+      @Override
+      String transform(String contextPath, String resourcePath, String content) {
+        return content + "\n;";
+      }
+    };
+
+    private final String extension;
+    private final String contentType;
+
+    Type(String extension, String contentType) {
+      this.extension = extension;
+      this.contentType = contentType;
+    }
+
+    String getExtension() {
+      return extension;
+    }
+
+    String getContentType() {
+      return contentType;
+    }
+
+    /**
+     * Transforms the content of a resource so that it may be moved into the bundle.
+     */
+    abstract String transform(String contextPath, String resourcePath, String content);
+  }
+
+  private final ServletContext servletContext;
+
+  private final ContentStore store;
+
+  /**
+   * The bundle URI for each list of built URLs, to avoid building on every render.
+   */
+  private final LruCache<List<String>, String> uris = new LruCache<>(MAX_BUNDLES);
+
+  /**
+   * Whether each stylesheet uses {@code @import}, by built URL.
+   */
+  private final LruCache<String, Boolean> imports = new LruCache<>(MAX_IMPORTS);
+
+  Bundles(ServletContext servletContext, ContentStore store) {
+    this.servletContext = servletContext;
+    this.store = store;
+  }
+
+  /**
+   * Checks if bundling is enabled, which is when the store is enabled.
+   */
+  boolean isEnabled() {
+    return store.isEnabled();
+  }
+
+  /**
+   * Registers a bundle, building and storing its content when not already registered.
+   *
+   * @param  resourcePaths  The context-relative paths of the resources, in order
+   * @param  urls  The built URLs of the resources, without response encoding, in order
+   *
+   * @return  The context-relative URI of the bundle
+   */
+  String register(Type type, String contextPath, List<String> resourcePaths, List<String> urls) throws IOException {
+    assert resourcePaths.size() == urls.size();
+    String uri = uris.get(urls);
+    if (uri == null) {
+      // Content is captured now, so the bundle never changes after registration
+      byte[] content = build(type, contextPath, resourcePaths);
+      MessageDigest digest;
+      try {
+        digest = MessageDigest.getInstance(ALGORITHM);
+      } catch (NoSuchAlgorithmException e) {
+        throw new AssertionError(ALGORITHM + " is required by the Java platform", e);
+      }
+      String name = Base64.getUrlEncoder().withoutPadding().encodeToString(
+          Arrays.copyOf(digest.digest(content), ID_BYTES)
+      ) + type.getExtension();
+      uri = PATH_PREFIX + name;
+      if (!store.contains(name)) {
+        store.store(name, content);
+        if (logger.isLoggable(Level.FINE)) {
+          logger.fine("registered bundle: " + uri + " -> " + resourcePaths);
+        }
+      }
+      uris.put(Collections.unmodifiableList(new ArrayList<>(urls)), uri);
+    }
+    return uri;
+  }
+
+  /**
+   * Gets the URI of a bundle already registered, without building it.
+   *
+   * @param  urls  The built URLs of the resources, without response encoding, in order
+   *
+   * @return  The context-relative URI of the bundle or {@code null} when not registered
+   */
+  String getRegistered(List<String> urls) {
+    return uris.get(urls);
+  }
+
+  /**
+   * Checks if the given URI is a bundle.
+   */
+  static boolean isBundle(String uri) {
+    return uri.startsWith(PATH_PREFIX);
+  }
+
+  /**
+   * Gets the type of a bundle.
+   *
+   * @param  name  The name of the bundle, which is its path after {@link #PATH_PREFIX}
+   *
+   * @return  The type or {@code null} when not a valid name
+   */
+  static Type getType(String name) {
+    return ContentStore.getType(name);
+  }
+
+  /**
+   * Gets the content of a bundle.
+   *
+   * @param  name  The name of the bundle, which is its path after {@link #PATH_PREFIX}
+   *
+   * @return  The content, encoded as UTF-8, or {@code null} when not found
+   */
+  byte[] getContent(String name) throws IOException {
+    return store.getContent(name);
+  }
+
+  /**
+   * Gets an encoded variant of the content of a bundle.
+   *
+   * @param  name  The name of the bundle, which is its path after {@link #PATH_PREFIX}
+   *
+   * @return  The encoded content or {@code null} when not found
+   */
+  byte[] getContent(String name, Renderer.ContentEncoder encoder) throws IOException {
+    return store.getContent(name, encoder);
+  }
+
+  private byte[] build(Type type, String contextPath, List<String> resourcePaths) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (String resourcePath : resourcePaths) {
+      String text = read(resourcePath);
+      if (text == null) {
+        logger.warning("Bundled resource not found: " + resourcePath);
+        text = "";
+      }
+      sb.append("/* ").append(resourcePath.replace("*/", "*\\/")).append(" */\n")
+          .append(type.transform(contextPath, resourcePath, text));
+      if (sb.charAt(sb.length() - 1) != '\n') {
+        sb.append('\n');
+      }
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a resource, without any byte order mark.
+   *
+   * @return  The text or {@code null} when not found
+   */
+  private String read(String resourcePath) throws IOException {
+    String text;
+    try (InputStream in = servletContext.getResourceAsStream(resourcePath)) {
+      if (in == null) {
+        return null;
+      }
+      text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    // Strip any byte order mark
+    if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+      text = text.substring(1);
+    }
+    return text;
+  }
+
+  /**
+   * Matches any {@code @import} rule in CSS, with or without {@code url(...)}.  May also match within a comment or
+   * string, which only prevents bundling.
+   */
+  private static final Pattern CSS_IMPORT_RULE = Pattern.compile("@import\\b", Pattern.CASE_INSENSITIVE);
+
+  /**
+   * Checks if a stylesheet uses {@code @import}.  Since {@code @import} is only honored at the start of a
+   * stylesheet, such a stylesheet must start a new bundle.  Cached by built URL, which changes whenever the
+   * stylesheet changes.
+   *
+   * @param  resourcePath  The context-relative path of the stylesheet
+   * @param  url  The built URL of the stylesheet, without response encoding
+   * @param  cachedOnly  When the stylesheet may not be read, in which case {@code true} is returned when not cached
+   */
+  boolean usesImport(String resourcePath, String url, boolean cachedOnly) throws IOException {
+    Boolean usesImport = imports.get(url);
+    if (usesImport == null) {
+      if (cachedOnly) {
+        return true;
+      }
+      String text = read(resourcePath);
+      usesImport = text != null && CSS_IMPORT_RULE.matcher(text).find();
+      imports.put(url, usesImport);
+    }
+    return usesImport;
+  }
+
+  /**
+   * Matches {@code url(...)} references in CSS, with optional quotes.
+   */
+  private static final Pattern CSS_URL = Pattern.compile("url\\(\\s*(['\"]?)([^'\")]*)\\1\\s*\\)");
+
+  /**
+   * Matches {@code @import "..."} references in CSS, without {@code url(...)}.
+   */
+  private static final Pattern CSS_IMPORT = Pattern.compile("@import\\s+(['\"])([^'\"]*)\\1");
+
+  /**
+   * Matches a leading {@code @charset} rule, which is only allowed at the start of a stylesheet.
+   */
+  private static final Pattern CSS_CHARSET = Pattern.compile("^@charset\\s+['\"][^'\"]*['\"]\\s*;");
+
+  /**
+   * Rewrites relative references in CSS to be relative to the context path, since the bundle is served from a
+   * different directory.  Also removes any {@code @charset} rule.
+   *
+   * @see  #usesImport(java.lang.String, java.lang.String, boolean)
+   */
+  static String rewriteCss(String contextPath, String resourcePath, String css) {
+    css = CSS_CHARSET.matcher(css).replaceFirst("");
+    css = rewriteCss(CSS_URL, contextPath, resourcePath, css, "url($1", "$1)");
+    return rewriteCss(CSS_IMPORT, contextPath, resourcePath, css, "@import $1", "$1");
+  }
+
+  private static String rewriteCss(
+      Pattern pattern,
+      String contextPath,
+      String resourcePath,
+      String css,
+      String before,
+      String after
+  ) {
+    Matcher matcher = pattern.matcher(css);
+    StringBuilder sb = null;
+    while (matcher.find()) {
+      String ref = matcher.group(2);
+      String resolved = resolve(contextPath, resourcePath, ref);
+      if (resolved != null) {
+        if (sb == null) {
+          sb = new StringBuilder(css.length() + 256);
+        }
+        matcher.appendReplacement(sb, before + Matcher.quoteReplacement(resolved) + after);
+      }
+    }
+    if (sb == null) {
+      return css;
+    }
+    matcher.appendTail(sb);
+    return sb.toString();
+  }
+
+  /**
+   * Resolves a relative reference from a stylesheet.
+   *
+   * @return  The context-prefixed path or {@code null} when the reference does not need to be rewritten.
+   */
+  private static String resolve(String contextPath, String resourcePath, String ref) {
+    String trimmed = ref.trim();
+    if (
+        trimmed.isEmpty()
+            || trimmed.charAt(0) == '/'
+            || trimmed.charAt(0) == '#'
+            || ResourcePaths.getResourcePath(trimmed) == null
+    ) {
+      // Empty, absolute path, fragment-only, or has scheme (including "data:")
+      return null;
+    }
+    try {
+      return contextPath + URI.create(resourcePath).resolve(trimmed).toString();
+    } catch (IllegalArgumentException e) {
+      // Not a valid URI, leave as-is
+      if (logger.isLoggable(Level.FINE)) {
+        logger.log(Level.FINE, "Unable to resolve \"" + trimmed + "\" from " + resourcePath, e);
+      }
+      return null;
+    }
+  }
+}
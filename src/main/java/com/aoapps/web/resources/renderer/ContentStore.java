@@ -0,0 +1,218 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Stores immutable content in a directory, such as {@linkplain Bundles bundles} and
+ * {@linkplain Minified minified content}.
+ *
+ * <p>Content is named by a hash, so the content of a name never changes and may be cached indefinitely.  Content is
+ * only written the first time its name is stored, and the directory persists across restarts.  Content is served
+ * from the directory, so it does not require session affinity when the directory is shared by a cluster.</p>
+ *
+ * <p>A variant for each {@linkplain Renderer.ContentEncoder content encoder} is written next to the content, named
+ * with the extension of the encoder, so content is compressed once instead of on every response.</p>
+ *
+ * <p>Recently used content no larger than {@link #MAX_CACHED_BYTES} is also kept in memory, both raw and encoded,
+ * so frequently served content is not read from the directory on every request.  Since content never changes, the
+ * cached bytes never become stale.</p>
+ *
+ * <p>Files are never removed from the directory.  A directory that grows too large, such as after many changes to
+ * resources, may be emptied while the application is stopped.</p>
+ */
+final class ContentStore {
+
+  /**
+   * The pattern of all valid names, which also ensures a name never leaves the directory.
+   */
+  private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]+\\.(css|js)");
+
+  /**
+   * The maximum number of files kept in memory.
+   */
+  private static final int MAX_CACHED_FILES = 100;
+
+  /**
+   * The maximum size of a file kept in memory.
+   */
+  private static final int MAX_CACHED_BYTES = 256 * 1024;
+
+  /**
+   * The directory or {@code null} when disabled.
+   */
+  private final Path directory;
+
+  /**
+   * The encoders of variants written next to content.
+   */
+  private final List<Renderer.ContentEncoder> encoders;
+
+  /**
+   * The recently used content, by file name.
+   */
+  private final LruCache<String, byte[]> cache = new LruCache<>(MAX_CACHED_FILES);
+
+  ContentStore(Path directory, List<Renderer.ContentEncoder> encoders) {
+    this.directory = directory;
+    this.encoders = encoders;
+  }
+
+  /**
+   * Checks if the store is enabled, which is when there is a directory.
+   */
+  boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * Gets the type of stored content.
+   *
+   * @return  The type or {@code null} when not a valid name
+   */
+  static Bundles.Type getType(String name) {
+    if (!NAME.matcher(name).matches()) {
+      return null;
+    }
+    return name.endsWith(Bundles.Type.STYLE.getExtension()) ? Bundles.Type.STYLE : Bundles.Type.SCRIPT;
+  }
+
+  /**
+   * Checks if content is stored.
+   */
+  boolean contains(String name) {
+    return directory != null
+        && getType(name) != null
+        && (cache.get(name) != null || Files.exists(directory.resolve(name)));
+  }
+
+  /**
+   * Stores content, along with a variant for each encoder.
+   *
+   * @param  name  The name, which must be valid and must only ever be stored with the same content
+   * @param  content  The content, which must not be modified after being stored
+   */
+  void store(String name, byte[] content) throws IOException {
+    if (directory == null) {
+      throw new IllegalStateException("Store is disabled");
+    }
+    if (getType(name) == null) {
+      throw new IllegalArgumentException("Invalid name: " + name);
+    }
+    // Encoded variants are written first, so they exist whenever the content exists
+    for (Renderer.ContentEncoder encoder : encoders) {
+      write(name + encoder.getExtension(), encoder.encode(content));
+    }
+    write(name, content);
+  }
+
+  /**
+   * Writes to a temporary file first, so a partially written file is never served.
+   */
+  private void write(String fileName, byte[] content) throws IOException {
+    Path file = directory.resolve(fileName);
+    Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      Files.write(temp, content);
+      try {
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    cache(fileName, content);
+  }
+
+  /**
+   * Reads a file, from memory when recently used.
+   *
+   * @return  The content or {@code null} when not found
+   */
+  private byte[] read(String fileName) throws IOException {
+    byte[] content = cache.get(fileName);
+    if (content == null) {
+      try {
+        content = Files.readAllBytes(directory.resolve(fileName));
+      } catch (NoSuchFileException e) {
+        return null;
+      }
+      cache(fileName, content);
+    }
+    return content;
+  }
+
+  /**
+   * Keeps content in memory when no larger than {@link #MAX_CACHED_BYTES}.
+   */
+  private void cache(String fileName, byte[] content) {
+    if (content.length <= MAX_CACHED_BYTES) {
+      cache.put(fileName, content);
+    }
+  }
+
+  /**
+   * Gets stored content.
+   *
+   * @return  The content, which must not be modified, or {@code null} when not found
+   */
+  byte[] getContent(String name) throws IOException {
+    if (directory == null || getType(name) == null) {
+      return null;
+    }
+    return read(name);
+  }
+
+  /**
+   * Gets an encoded variant of stored content, encoding and storing when not already stored, such as when the
+   * encoder was added after the content was stored.
+   *
+   * @return  The encoded content, which must not be modified, or {@code null} when not found
+   */
+  byte[] getContent(String name, Renderer.ContentEncoder encoder) throws IOException {
+    if (directory == null || getType(name) == null) {
+      return null;
+    }
+    String fileName = name + encoder.getExtension();
+    byte[] encoded = read(fileName);
+    if (encoded == null) {
+      byte[] content = read(name);
+      if (content == null) {
+        return null;
+      }
+      encoded = encoder.encode(content);
+      write(fileName, encoded);
+    }
+    return encoded;
+  }
+}
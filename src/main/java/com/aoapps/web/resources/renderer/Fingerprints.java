@@ -0,0 +1,342 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContext;
+
+/**
+ * Computes content-hash fingerprints of resources in a bounded pool of background threads.
+ *
+ * <p>The {@linkplain Kind kind} of fingerprint determines the hash and its encoding.  Fingerprints are computed
+ * from the content as served, including the content of {@linkplain Bundles bundles} and
+ * {@linkplain Minified minified content}.  They are computed once per version, when
+ * a resource is first
+ * {@linkplain #get(java.lang.String, java.lang.String) requested}, and again after being
+ * {@linkplain #invalidate(java.lang.String) invalidated}.  The request thread never reads resource content: until
+ * a fingerprint is available, {@link #get(java.lang.String, java.lang.String)} returns {@code null} and listeners
+ * are notified once it has been computed.</p>
+ *
+ * <p>Each fingerprint is stored with the version of the resource it was requested for, such as its URL with
+ * last-modified parameter.  A fingerprint is only used for the same version, so a resource that changes without
+ * being {@linkplain ResourceWatcher watched} is fingerprinted again instead of keeping a stale fingerprint.  Since
+ * the version is captured before the content is read, a change while reading results in a mismatched version and
+ * another computation, never in a stale fingerprint.  A resource that is not found or cannot be read is also
+ * recorded against its version, so it is not read again until its version changes.</p>
+ */
+final class Fingerprints {
+
+  private static final Logger logger = Logger.getLogger(Fingerprints.class.getName());
+
+  /**
+   * The kinds of fingerprints.
+   */
+  enum Kind {
+    /**
+     * The SHA-256 of the content, truncated to {@link #FINGERPRINT_BYTES} bytes and encoded as URL-safe base64
+     * without padding.  Used to version URLs.
+     */
+    FINGERPRINT("fingerprints", "SHA-256") {
+      @Override
+      String encode(byte[] hash) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, FINGERPRINT_BYTES));
+      }
+    },
+
+    /**
+     * A <a href="https://www.w3.org/TR/SRI/">Subresource Integrity</a> metadata value of the SHA-384 of the
+     * content.
+     */
+    INTEGRITY("integrity", "SHA-384") {
+      @Override
+      String encode(byte[] hash) {
+        return "sha384-" + Base64.getEncoder().encodeToString(hash);
+      }
+    };
+
+    /**
+     * The number of bytes of the hash retained by {@link #FINGERPRINT}.
+     */
+    private static final int FINGERPRINT_BYTES = 12;
+
+    private final String threadName;
+    private final String algorithm;
+
+    Kind(String name, String algorithm) {
+      this.threadName = "ao-web-resources-renderer " + name;
+      this.algorithm = algorithm;
+    }
+
+    /**
+     * Encodes the hash of the content as a fingerprint.
+     */
+    abstract String encode(byte[] hash);
+  }
+
+  /**
+   * The maximum number of threads computing fingerprints.
+   */
+  private static final int MAX_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+  /**
+   * The maximum number of resources waiting to be fingerprinted.  When full, a resource is retried on its next use.
+   */
+  private static final int MAX_QUEUE = 1000;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final ServletContext servletContext;
+
+  private final Bundles bundles;
+
+  private final Minified minified;
+
+  private final Kind kind;
+
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * A fingerprint along with the version of the resource it was requested for.
+   */
+  private static final class Fingerprint {
+
+    private final String version;
+
+    /**
+     * The fingerprint or {@code null} when not found or unable to be read.
+     */
+    private final String value;
+
+    private Fingerprint(String version, String value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+
+  /**
+   * The fingerprint of each resource, by href.
+   */
+  private final Map<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+  /**
+   * The hrefs currently queued or being fingerprinted, each with a unique token identifying its task.
+   */
+  private final Map<String, Object> pending = new ConcurrentHashMap<>();
+
+  private volatile ThreadPoolExecutor executor;
+
+  Fingerprints(ServletContext servletContext, Bundles bundles, Minified minified, Kind kind) {
+    this.servletContext = servletContext;
+    this.bundles = bundles;
+    this.minified = minified;
+    this.kind = kind;
+  }
+
+  /**
+   * Adds a listener that is notified, from a background thread, with the href of each new fingerprint.
+   */
+  void addListener(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Starts fingerprinting.  Does nothing when already started.
+   */
+  synchronized void start() {
+    if (executor == null) {
+      ThreadPoolExecutor newExecutor = new ThreadPoolExecutor(
+          MAX_THREADS,
+          MAX_THREADS,
+          60,
+          TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(MAX_QUEUE),
+          r -> {
+            Thread thread = new Thread(r, kind.threadName);
+            thread.setDaemon(true);
+            return thread;
+          }
+      );
+      newExecutor.allowCoreThreadTimeOut(true);
+      executor = newExecutor;
+    }
+  }
+
+  /**
+   * Stops fingerprinting and forgets all fingerprints.
+   */
+  synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+      fingerprints.clear();
+      pending.clear();
+    }
+  }
+
+  /**
+   * Gets the fingerprint for the given resource, queuing it for fingerprinting when not yet available.
+   *
+   * @param  href  The resource URI, as registered
+   * @param  version  The current version of the resource, which changes whenever its content changes
+   *
+   * @return  The fingerprint or {@code null} when not started, not within this application, without a version,
+   *          not yet computed for this version, or not found or unable to be read at this version.
+   */
+  String get(String href, String version) {
+    ThreadPoolExecutor ex = executor;
+    if (ex == null || version == null) {
+      return null;
+    }
+    Fingerprint fingerprint = fingerprints.get(href);
+    if (fingerprint != null && fingerprint.version.equals(version)) {
+      return fingerprint.value;
+    }
+    String resourcePath = ResourcePaths.getResourcePath(href);
+    if (resourcePath != null) {
+      Object token = new Object();
+      if (pending.putIfAbsent(href, token) == null) {
+        try {
+          ex.execute(() -> compute(href, resourcePath, version, token));
+        } catch (RejectedExecutionException e) {
+          // Queue full or stopped, will retry on next use
+          pending.remove(href, token);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Discards the fingerprint for the given resource, which will be re-computed on its next use.
+   *
+   * @param  href  The resource URI
+   */
+  void invalidate(String href) {
+    // Removing from pending causes any in-progress computation to be discarded
+    pending.remove(href);
+    fingerprints.remove(href);
+  }
+
+  private void compute(String href, String resourcePath, String version, Object token) {
+    try {
+      String computed;
+      try {
+        computed = compute(resourcePath);
+      } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+        logger.log(Level.WARNING, "Unable to fingerprint: " + resourcePath, e);
+        computed = null;
+      }
+      final String fingerprint = computed;
+      boolean[] published = {false};
+      // Publish atomically with removal from pending, so a concurrent invalidation is not lost
+      pending.computeIfPresent(href, (k, v) -> {
+        if (v == token) {
+          fingerprints.put(href, new Fingerprint(version, fingerprint));
+          published[0] = true;
+          return null;
+        }
+        return v;
+      });
+      if (published[0] && fingerprint != null) {
+        if (logger.isLoggable(Level.FINER)) {
+          logger.finer(kind + ": " + href + " (" + version + ") -> " + fingerprint);
+        }
+        for (Consumer<String> listener : listeners) {
+          try {
+            listener.accept(href);
+          } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, null, e);
+          }
+        }
+      }
+    } finally {
+      // Stopped or invalidated: allow retry on next use
+      pending.remove(href, token);
+    }
+  }
+
+  /**
+   * Computes the fingerprint of a resource.
+   *
+   * @return  The fingerprint or {@code null} when not found
+   */
+  private String compute(String resourcePath) throws IOException, NoSuchAlgorithmException {
+    String fingerprint;
+    if (Bundles.isBundle(resourcePath)) {
+      byte[] content = bundles.getContent(resourcePath.substring(Bundles.PATH_PREFIX.length()));
+      if (content == null) {
+        if (logger.isLoggable(Level.FINE)) {
+          logger.fine("bundle not found, not fingerprinting: " + resourcePath);
+        }
+        fingerprint = null;
+      } else {
+        fingerprint = kind.encode(MessageDigest.getInstance(kind.algorithm).digest(content));
+      }
+    } else if (Minified.isMinified(resourcePath)) {
+      byte[] content = minified.getContent(resourcePath.substring(Minified.PATH_PREFIX.length()));
+      if (content == null) {
+        if (logger.isLoggable(Level.FINE)) {
+          logger.fine("minified content not found, not fingerprinting: " + resourcePath);
+        }
+        fingerprint = null;
+      } else {
+        fingerprint = kind.encode(MessageDigest.getInstance(kind.algorithm).digest(content));
+      }
+    } else {
+      try (InputStream in = servletContext.getResourceAsStream(resourcePath)) {
+        if (in == null) {
+          if (logger.isLoggable(Level.FINE)) {
+            logger.fine("resource not found, not fingerprinting: " + resourcePath);
+          }
+          fingerprint = null;
+        } else {
+          MessageDigest digest = MessageDigest.getInstance(kind.algorithm);
+          byte[] buff = new byte[BUFFER_SIZE];
+          int numBytes;
+          while ((numBytes = in.read(buff)) != -1) {
+            digest.update(buff, 0, numBytes);
+          }
+          fingerprint = kind.encode(digest.digest());
+        }
+      }
+    }
+    return fingerprint;
+  }
+}
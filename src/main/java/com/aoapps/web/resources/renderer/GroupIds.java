@@ -0,0 +1,82 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.web.resources.registry.Group;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns {@linkplain Group.Name group names} to dense integer IDs, so sets of groups may be represented as bit sets.
+ *
+ * <p>IDs are never released.  To protect against unbounded growth from dynamically generated group names, no more
+ * than {@link #MAX_IDS} are assigned.</p>
+ */
+final class GroupIds {
+
+  /**
+   * The maximum number of IDs assigned.
+   */
+  private static final int MAX_IDS = 10000;
+
+  private final Map<Group.Name, Integer> ids = new ConcurrentHashMap<>();
+
+  private final List<Group.Name> names = new ArrayList<>(); // Protected by names
+
+  /**
+   * Gets the ID for the given group, assigning the next ID when first seen.
+   *
+   * @return  The ID or {@code -1} when the maximum number of IDs have already been assigned
+   */
+  int getId(Group.Name name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (names) {
+      id = ids.get(name);
+      if (id == null) {
+        int size = names.size();
+        if (size >= MAX_IDS) {
+          return -1;
+        }
+        names.add(name);
+        id = size;
+        ids.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Gets the group for the given ID.
+   */
+  Group.Name getName(int id) {
+    synchronized (names) {
+      return names.get(id);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes content with gzip at the best compression, since content is only encoded once.
+ */
+final class GzipEncoder implements Renderer.ContentEncoder {
+
+  static final GzipEncoder INSTANCE = new GzipEncoder();
+
+  private GzipEncoder() {
+    // Singleton
+  }
+
+  @Override
+  public String getName() {
+    return "gzip";
+  }
+
+  @Override
+  public String getExtension() {
+    return ".gz";
+  }
+
+  @Override
+  public byte[] encode(byte[] content) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream(content.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(bout) {
+      {
+        def.setLevel(Deflater.BEST_COMPRESSION);
+      }
+    }) {
+      out.write(content);
+    }
+    return bout.toByteArray();
+  }
+
+  @Override
+  public String toString() {
+    return getName();
+  }
+}
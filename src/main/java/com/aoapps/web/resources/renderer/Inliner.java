@@ -0,0 +1,364 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.html.any.AnyDocument;
+import com.aoapps.html.any.AnyMetadataContent;
+import com.aoapps.html.any.AnySCRIPT;
+import com.aoapps.html.any.AnyScriptSupportingContent;
+import com.aoapps.html.any.Content;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.ServletContext;
+
+/**
+ * Caches the content of small resources for inlining into the page.
+ *
+ * <p>Content is read once, transformed to be independent of its original location, and escaped so it may not
+ * end the element it is inlined into.  The text is then cached, so inlining performs no reading or escaping on
+ * each request.  Resources larger than the maximum are not inlined, which is also cached.</p>
+ *
+ * <p>The element containing the text is written through the fluent API once for each
+ * {@linkplain TagCache#getKey(com.aoapps.html.any.AnyDocument, java.util.List) doctype and serialization}, and its
+ * captured text is then written with a single unsafe call, so the text is not encoded again on each request.  As
+ * with {@link TagCache}, elements for documents that indent or automatically add newlines are always written
+ * through the fluent API.</p>
+ *
+ * <p>As with {@link UrlCache}, entries expire after {@link #MAX_AGE_NANOS} unless the resource is watched by the
+ * {@link ResourceWatcher}, in which case they are {@linkplain #invalidate(java.lang.String) invalidated} when the
+ * resource changes.  {@linkplain Bundles#isBundle(java.lang.String) Bundles} and
+ * {@linkplain Minified#isMinified(java.lang.String) minified content} never change.</p>
+ */
+final class Inliner {
+
+  /**
+   * The maximum amount of time content is used before it is re-read.
+   */
+  private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * The maximum number of resources retained.
+   */
+  private static final int MAX_ENTRIES = 1000;
+
+  /**
+   * Matches the end tag of a style element, case-insensitive.
+   */
+  private static final Pattern STYLE_END = Pattern.compile("</(style)", Pattern.CASE_INSENSITIVE);
+
+  /**
+   * Matches the end tag of a script element, case-insensitive.
+   */
+  private static final Pattern SCRIPT_END = Pattern.compile("</(script)", Pattern.CASE_INSENSITIVE);
+
+  private static final class Key {
+
+    private final Bundles.Type type;
+    private final String contextPath;
+    private final String href;
+
+    private Key(Bundles.Type type, String contextPath, String href) {
+      this.type = type;
+      this.contextPath = contextPath;
+      this.href = href;
+    }
+
+    @Override
+    public int hashCode() {
+      return (type.hashCode() * 31 + contextPath.hashCode()) * 31 + href.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return type == other.type && href.equals(other.href) && contextPath.equals(other.contextPath);
+    }
+  }
+
+  private static final class Entry {
+
+    /**
+     * The escaped text or {@code null} when not inlined.
+     */
+    private final String text;
+    private final boolean watched;
+    private final long expires;
+
+    /**
+     * The captured text of the element containing the text, by doctype, serialization, and attributes.
+     */
+    private final Map<List<Object>, String> elements = new ConcurrentHashMap<>();
+
+    private Entry(String text, boolean watched, long expires) {
+      this.text = text;
+      this.watched = watched;
+      this.expires = expires;
+    }
+
+    private boolean isValid(long now) {
+      return watched || now - expires < 0;
+    }
+  }
+
+  private final ServletContext servletContext;
+
+  private final ResourceWatcher watcher;
+
+  private final Bundles bundles;
+
+  private final Minified minified;
+
+  private final LruCache<Key, Entry> cache = new LruCache<>(MAX_ENTRIES);
+
+  /**
+   * Incremented on each invalidation, to detect an invalidation while content is being read.
+   */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  Inliner(ServletContext servletContext, ResourceWatcher watcher, Bundles bundles, Minified minified) {
+    this.servletContext = servletContext;
+    this.watcher = watcher;
+    this.bundles = bundles;
+    this.minified = minified;
+  }
+
+  /**
+   * Checks if a stylesheet is inlined, using only cached content, without reading the resource.
+   *
+   * @param  href  The resource URI, not {@code null}
+   *
+   * @return  {@code true} when inlined, or {@code false} when not inlined or not known
+   */
+  boolean isStyleInlined(String contextPath, String href) {
+    return isInlined(Bundles.Type.STYLE, contextPath, href);
+  }
+
+  /**
+   * Writes a stylesheet inlined into a {@code <style>} element, when not too large.
+   * Relative references are rewritten to be relative to the context path, and any end tag is escaped.
+   *
+   * @param  href  The resource URI, not {@code null}
+   *
+   * @param  maxBytes  The maximum size, in bytes, of the resource to inline
+   *
+   * @param  media  The media query or {@code null} for none
+   *
+   * @return  {@code true} when inlined, or {@code false} when not to be inlined and nothing was written
+   */
+  boolean writeStyle(AnyMetadataContent<?, ?> content, String contextPath, String href, int maxBytes, String media)
+      throws IOException {
+    Entry entry = getEntry(Bundles.Type.STYLE, contextPath, href, maxBytes);
+    String text = entry.text;
+    if (text == null) {
+      return false;
+    }
+    write(content, entry, Collections.singletonList(media), () -> content.style().media(media).__(text));
+    return true;
+  }
+
+  /**
+   * Checks if a script is inlined, using only cached content, without reading the resource.
+   *
+   * @param  href  The resource URI, not {@code null}
+   *
+   * @return  {@code true} when inlined, or {@code false} when not inlined or not known
+   */
+  boolean isScriptInlined(String contextPath, String href) {
+    return isInlined(Bundles.Type.SCRIPT, contextPath, href);
+  }
+
+  /**
+   * Writes a script inlined into a {@code <script>} element, when not too large.
+   * Any end tag is escaped.
+   *
+   * @param  href  The resource URI, not {@code null}
+   *
+   * @param  maxBytes  The maximum size, in bytes, of the resource to inline
+   *
+   * @return  {@code true} when inlined, or {@code false} when not to be inlined and nothing was written
+   */
+  boolean writeScript(AnyScriptSupportingContent<?, ?> content, String contextPath, String href, int maxBytes)
+      throws IOException {
+    Entry entry = getEntry(Bundles.Type.SCRIPT, contextPath, href, maxBytes);
+    String text = entry.text;
+    if (text == null) {
+      return false;
+    }
+    write(
+        content,
+        entry,
+        Collections.singletonList(AnySCRIPT.Type.APPLICATION_JAVASCRIPT),
+        () -> content.script(AnySCRIPT.Type.APPLICATION_JAVASCRIPT).__(text)
+    );
+    return true;
+  }
+
+  private boolean isInlined(Bundles.Type type, String contextPath, String href) {
+    Entry entry = cache.get(new Key(type, contextPath, href));
+    return entry != null && entry.text != null && entry.isValid(System.nanoTime());
+  }
+
+  private Entry getEntry(Bundles.Type type, String contextPath, String href, int maxBytes) throws IOException {
+    Key key = new Key(type, contextPath, href);
+    long now = System.nanoTime();
+    Entry entry = cache.get(key);
+    if (entry == null || !entry.isValid(now)) {
+      // Watch before reading, so any change while reading is seen
+      long version = invalidations.get();
+      boolean isBundle = Bundles.isBundle(href);
+      boolean isMinified = Minified.isMinified(href);
+      boolean watched = isBundle || isMinified || watcher.watch(href);
+      entry = new Entry(read(type, contextPath, href, isBundle, isMinified, maxBytes), watched, now + MAX_AGE_NANOS);
+      if (invalidations.get() == version) {
+        cache.put(key, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Writes the element containing inlined text, using its captured text when available.
+   *
+   * @param  attributes  Every attribute of the element
+   * @param  writer  Writes the element through the fluent API to the given content
+   */
+  private static void write(Content<?, ?> content, Entry entry, List<Object> attributes, TagCache.TagWriter writer)
+      throws IOException {
+    AnyDocument<?> document = content.getDocument();
+    if (!TagCache.isCacheable(document)) {
+      writer.write();
+      return;
+    }
+    List<Object> key = TagCache.getKey(document, attributes);
+    String element = entry.elements.get(key);
+    if (element == null) {
+      element = TagCache.capture(document, writer);
+      entry.elements.put(key, element);
+    }
+    content.unsafe(element);
+  }
+
+  /**
+   * Reads, transforms, and escapes the content of a resource.
+   *
+   * @return  The escaped text or {@code null} when not found, not within this application, or too large
+   */
+  private String read(
+      Bundles.Type type,
+      String contextPath,
+      String href,
+      boolean isBundle,
+      boolean isMinified,
+      int maxBytes
+  ) throws IOException {
+    String text;
+    if (isBundle) {
+      String name = href.substring(Bundles.PATH_PREFIX.length());
+      if (Bundles.getType(name) != type) {
+        return null;
+      }
+      byte[] content = bundles.getContent(name);
+      if (content == null || content.length > maxBytes) {
+        return null;
+      }
+      // Bundled content is already transformed
+      text = new String(content, StandardCharsets.UTF_8);
+    } else if (isMinified) {
+      String name = href.substring(Minified.PATH_PREFIX.length());
+      if (Minified.getType(name) != type) {
+        return null;
+      }
+      byte[] content = minified.getContent(name);
+      if (content == null || content.length > maxBytes) {
+        return null;
+      }
+      // Minified content is already transformed
+      text = new String(content, StandardCharsets.UTF_8);
+    } else {
+      String resourcePath = ResourcePaths.getResourcePath(href);
+      if (resourcePath == null || !resourcePath.startsWith("/")) {
+        return null;
+      }
+      byte[] content;
+      try (InputStream in = servletContext.getResourceAsStream(resourcePath)) {
+        if (in == null) {
+          return null;
+        }
+        content = in.readNBytes(maxBytes + 1);
+      }
+      if (content.length > maxBytes) {
+        return null;
+      }
+      text = new String(content, StandardCharsets.UTF_8);
+      // Strip any byte order mark
+      if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+        text = text.substring(1);
+      }
+      text = type.transform(contextPath, resourcePath, text);
+    }
+    return escape(type, text);
+  }
+
+  /**
+   * Escapes text so it does not end the element it is inlined into.  The escape is valid within the language:
+   * {@code <\/style} in CSS and {@code <\/script} in JavaScript are unchanged within strings and regular
+   * expressions, and harmless within comments, which are the only places either may appear.
+   */
+  private static String escape(Bundles.Type type, String text) {
+    Pattern end;
+    switch (type) {
+      case STYLE:
+        end = STYLE_END;
+        break;
+      case SCRIPT:
+        end = SCRIPT_END;
+        break;
+      default:
+        throw new AssertionError("Unexpected type: " + type);
+    }
+    return end.matcher(text).replaceAll(Matcher.quoteReplacement("<\\/") + "$1");
+  }
+
+  /**
+   * Removes all cached content for the given resource.
+   *
+   * @param  href  The resource URI
+   */
+  void invalidate(String href) {
+    invalidations.incrementAndGet();
+    cache.removeIf(key -> key.href.equals(href));
+  }
+}
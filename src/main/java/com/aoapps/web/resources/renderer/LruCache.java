@@ -0,0 +1,173 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * A simple, thread-safe, size-bounded cache with approximate least-recently-used eviction.
+ *
+ * <p>Reads never lock, so the cache may be used on the rendering hot path by many threads at once.  Each entry
+ * records the time it was last used, updated at most once per {@link #TOUCH_NANOS}.  When a put exceeds the
+ * maximum size, a single thread evicts the least-recently-used entries down to {@link #EVICT_TO} of the maximum,
+ * so the cost of eviction is spread over many puts.  Other threads do not wait for eviction, so the size may
+ * briefly exceed the maximum.</p>
+ */
+final class LruCache<K, V> {
+
+  /**
+   * The minimum time between updates of the last-used time of an entry, which avoids writing to shared memory on
+   * every read of frequently used entries.
+   */
+  private static final long TOUCH_NANOS = 1000L * 1000;
+
+  /**
+   * The fraction of the maximum size retained after eviction.
+   */
+  private static final double EVICT_TO = 0.875;
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private volatile long lastUsed;
+
+    private Entry(V value, long lastUsed) {
+      this.value = value;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+  /**
+   * An entry considered for eviction, with its last-used time captured so it does not change while sorting.
+   */
+  private static final class Candidate<K, V> {
+
+    private final K key;
+    private final Entry<V> entry;
+    private final long lastUsed;
+
+    private Candidate(K key, Entry<V> entry) {
+      this.key = key;
+      this.entry = entry;
+      this.lastUsed = entry.lastUsed;
+    }
+  }
+
+  private final int maxSize;
+
+  private final ConcurrentHashMap<K, Entry<V>> map = new ConcurrentHashMap<>();
+
+  /**
+   * Set while a thread is evicting.
+   */
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  /**
+   * @param  maxSize  The maximum number of entries retained before the least-recently-used are evicted.
+   */
+  LruCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize < 1: " + maxSize);
+    }
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Gets the value for the given key, marking it as recently used.
+   *
+   * @return  The value or {@code null} when not cached
+   */
+  V get(K key) {
+    Entry<V> entry = map.get(key);
+    if (entry == null) {
+      return null;
+    }
+    long now = System.nanoTime();
+    if (now - entry.lastUsed > TOUCH_NANOS) {
+      entry.lastUsed = now;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Adds a value, possibly evicting the least-recently-used entries.
+   */
+  void put(K key, V value) {
+    map.put(key, new Entry<>(value, System.nanoTime()));
+    if (map.size() > maxSize && evicting.compareAndSet(false, true)) {
+      try {
+        evict();
+      } finally {
+        evicting.set(false);
+      }
+    }
+  }
+
+  /**
+   * Evicts the least-recently-used entries down to {@link #EVICT_TO} of the maximum size.
+   */
+  private void evict() {
+    List<Candidate<K, V>> candidates = new ArrayList<>(map.size());
+    for (Map.Entry<K, Entry<V>> entry : map.entrySet()) {
+      candidates.add(new Candidate<>(entry.getKey(), entry.getValue()));
+    }
+    int target = Math.max(1, (int) (maxSize * EVICT_TO));
+    int toRemove = candidates.size() - target;
+    if (toRemove > 0) {
+      // Compare by difference, since nanoTime may wrap
+      candidates.sort((c1, c2) -> Long.signum(c1.lastUsed - c2.lastUsed));
+      for (int i = 0; i < toRemove; i++) {
+        Candidate<K, V> eldest = candidates.get(i);
+        // Only remove when not replaced since the snapshot
+        map.remove(eldest.key, eldest.entry);
+      }
+    }
+  }
+
+  /**
+   * Removes the entry for the given key.
+   */
+  void remove(K key) {
+    map.remove(key);
+  }
+
+  /**
+   * Removes all entries with keys matching the given filter.
+   */
+  void removeIf(Predicate<? super K> filter) {
+    map.keySet().removeIf(filter);
+  }
+
+  /**
+   * Removes all entries.
+   */
+  void clear() {
+    map.clear();
+  }
+}
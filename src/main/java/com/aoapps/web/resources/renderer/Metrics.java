@@ -0,0 +1,297 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of a {@link Renderer}.
+ *
+ * <p>Metrics are always collected, at the cost of a few uncontended increments and {@link System#nanoTime()} calls
+ * per render.  They are available through {@link Renderer#getMetrics()} and, when the platform MBean server is
+ * available, as an MXBean registered by {@link Renderer.Initializer}.</p>
+ */
+public final class Metrics implements MetricsMXBean {
+
+  /**
+   * A histogram of durations, in power-of-two buckets of nanoseconds.
+   */
+  public static final class Histogram {
+
+    /**
+     * The number of buckets.  The last bucket includes all durations of {@code 2^(BUCKETS - 2)} nanoseconds or
+     * more, which is over four minutes.
+     */
+    private static final int BUCKETS = 40;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private Histogram() {
+      // Created by Metrics only
+    }
+
+    /**
+     * Records a duration.
+     */
+    void record(long nanos) {
+      if (nanos < 0) {
+        nanos = 0;
+      }
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+      buckets.incrementAndGet(Math.min(Long.SIZE - Long.numberOfLeadingZeros(nanos), BUCKETS - 1));
+    }
+
+    /**
+     * The number of durations recorded.
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * The sum of all durations recorded.
+     */
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    /**
+     * The longest duration recorded.
+     */
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    /**
+     * The mean duration recorded.
+     */
+    public long getMeanNanos() {
+      long c = count.sum();
+      return (c == 0) ? 0 : (totalNanos.sum() / c);
+    }
+
+    /**
+     * The upper bound of the bucket containing the median.
+     */
+    public long getMedianNanos() {
+      return getPercentileNanos(50);
+    }
+
+    /**
+     * The upper bound of the bucket containing the 99th percentile.
+     */
+    public long get99thPercentileNanos() {
+      return getPercentileNanos(99);
+    }
+
+    /**
+     * The upper bound of the bucket containing the given percentile.
+     * Bucket {@code i} contains durations less than {@code 2^i} nanoseconds.
+     *
+     * @param  percentile  From {@code 0} through {@code 100}
+     */
+    public long getPercentileNanos(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("percentile out of range (0 - 100): " + percentile);
+      }
+      long[] counts = getBuckets();
+      long total = 0;
+      for (long c : counts) {
+        total += c;
+      }
+      if (total == 0) {
+        return 0;
+      }
+      long target = (long) Math.ceil(total * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= target && seen > 0) {
+          return (i == counts.length - 1) ? getMaxNanos() : (1L << i);
+        }
+      }
+      return getMaxNanos();
+    }
+
+    /**
+     * The count of each bucket, where bucket {@code i} contains durations from {@code 2^(i - 1)} up to
+     * {@code 2^i} nanoseconds.
+     */
+    public long[] getBuckets() {
+      long[] counts = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] = buckets.get(i);
+      }
+      return counts;
+    }
+
+    @Override
+    public String toString() {
+      return "Histogram(count=" + getCount()
+          + ", mean=" + getMeanNanos()
+          + ", median=" + getMedianNanos()
+          + ", p99=" + get99thPercentileNanos()
+          + ", max=" + getMaxNanos() + ')';
+    }
+  }
+
+  final LongAdder styleRenders = new LongAdder();
+  final LongAdder scriptRenders = new LongAdder();
+  final LongAdder stylesRendered = new LongAdder();
+  final LongAdder scriptsRendered = new LongAdder();
+  final LongAdder noRegistries = new LongAdder();
+  final LongAdder noActivations = new LongAdder();
+  final LongAdder noStyles = new LongAdder();
+  final LongAdder noApplicableStyles = new LongAdder();
+  final LongAdder noScripts = new LongAdder();
+  final LongAdder noApplicableScripts = new LongAdder();
+  final LongAdder resolutionHits = new LongAdder();
+  final LongAdder resolutionMisses = new LongAdder();
+  final LongAdder planHits = new LongAdder();
+  final LongAdder planMisses = new LongAdder();
+  final LongAdder urlHits = new LongAdder();
+  final LongAdder urlMisses = new LongAdder();
+
+  final Histogram resolveTime = new Histogram();
+  final Histogram unionSortTime = new Histogram();
+  final Histogram urlTime = new Histogram();
+  final Histogram emitTime = new Histogram();
+  final Histogram renderTime = new Histogram();
+
+  Metrics() {
+    // Created by Renderer only
+  }
+
+  @Override
+  public long getStyleRenders() {
+    return styleRenders.sum();
+  }
+
+  @Override
+  public long getScriptRenders() {
+    return scriptRenders.sum();
+  }
+
+  @Override
+  public long getStylesRendered() {
+    return stylesRendered.sum();
+  }
+
+  @Override
+  public long getScriptsRendered() {
+    return scriptsRendered.sum();
+  }
+
+  @Override
+  public long getNoRegistries() {
+    return noRegistries.sum();
+  }
+
+  @Override
+  public long getNoActivations() {
+    return noActivations.sum();
+  }
+
+  @Override
+  public long getNoStyles() {
+    return noStyles.sum();
+  }
+
+  @Override
+  public long getNoApplicableStyles() {
+    return noApplicableStyles.sum();
+  }
+
+  @Override
+  public long getNoScripts() {
+    return noScripts.sum();
+  }
+
+  @Override
+  public long getNoApplicableScripts() {
+    return noApplicableScripts.sum();
+  }
+
+  @Override
+  public long getResolutionHits() {
+    return resolutionHits.sum();
+  }
+
+  @Override
+  public long getResolutionMisses() {
+    return resolutionMisses.sum();
+  }
+
+  @Override
+  public long getPlanHits() {
+    return planHits.sum();
+  }
+
+  @Override
+  public long getPlanMisses() {
+    return planMisses.sum();
+  }
+
+  @Override
+  public long getUrlHits() {
+    return urlHits.sum();
+  }
+
+  @Override
+  public long getUrlMisses() {
+    return urlMisses.sum();
+  }
+
+  @Override
+  public Histogram getResolveTime() {
+    return resolveTime;
+  }
+
+  @Override
+  public Histogram getUnionSortTime() {
+    return unionSortTime;
+  }
+
+  @Override
+  public Histogram getUrlTime() {
+    return urlTime;
+  }
+
+  @Override
+  public Histogram getEmitTime() {
+    return emitTime;
+  }
+
+  @Override
+  public Histogram getRenderTime() {
+    return renderTime;
+  }
+}
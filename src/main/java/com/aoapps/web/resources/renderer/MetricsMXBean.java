@@ -0,0 +1,139 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+/**
+ * The management interface of {@link Metrics}, registered by {@link Renderer.Initializer}.
+ *
+ * @see  Renderer#getMetrics()
+ */
+public interface MetricsMXBean {
+
+  /**
+   * The number of times styles have been rendered.
+   */
+  long getStyleRenders();
+
+  /**
+   * The number of times scripts have been rendered, counting each position separately.
+   */
+  long getScriptRenders();
+
+  /**
+   * The number of styles rendered.
+   */
+  long getStylesRendered();
+
+  /**
+   * The number of scripts rendered.
+   */
+  long getScriptsRendered();
+
+  /**
+   * The number of renders with no registries.
+   */
+  long getNoRegistries();
+
+  /**
+   * The number of renders with no activated groups.
+   */
+  long getNoActivations();
+
+  /**
+   * The number of style renders with no styles in any activated group.
+   */
+  long getNoStyles();
+
+  /**
+   * The number of style renders with styles, but none applicable to the response direction.
+   */
+  long getNoApplicableStyles();
+
+  /**
+   * The number of script renders with no scripts in any activated group.
+   */
+  long getNoScripts();
+
+  /**
+   * The number of script renders with scripts, but none in the position being rendered.
+   */
+  long getNoApplicableScripts();
+
+  /**
+   * The number of resolutions reused from earlier in the same request.
+   */
+  long getResolutionHits();
+
+  /**
+   * The number of resolutions not available from earlier in the same request.
+   */
+  long getResolutionMisses();
+
+  /**
+   * The number of render plans found in the cache.
+   */
+  long getPlanHits();
+
+  /**
+   * The number of render plans built, performing a union and sort.
+   */
+  long getPlanMisses();
+
+  /**
+   * The number of resource URLs found in the cache.
+   */
+  long getUrlHits();
+
+  /**
+   * The number of resource URLs built.
+   */
+  long getUrlMisses();
+
+  /**
+   * The time to resolve activations and find the activated groups.
+   */
+  Metrics.Histogram getResolveTime();
+
+  /**
+   * The time to union, sort, and partition resources on a render plan cache miss.
+   */
+  Metrics.Histogram getUnionSortTime();
+
+  /**
+   * The time to build each resource URL, including response encoding.
+   */
+  Metrics.Histogram getUrlTime();
+
+  /**
+   * The time to emit the tags of the styles, or scripts of a single position, after optimizers, including URL
+   * building and inlining.
+   */
+  Metrics.Histogram getEmitTime();
+
+  /**
+   * The time to render the styles, or scripts of a single position, including optimizers, URL building, and
+   * emission.
+   */
+  Metrics.Histogram getRenderTime();
+}
@@ -0,0 +1,537 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+/**
+ * Conservative minification of stylesheets and scripts.
+ *
+ * <p>Only comments and whitespace are removed.  Strings, template literals, regular expressions, and unquoted
+ * {@code url(...)} values are copied unchanged.  Where unsure whether a slash begins a regular expression, such as
+ * after {@code )}, the rest of the line is copied unchanged.  Where the rest of the line might begin a construct
+ * spanning lines, or a template literal cannot be parsed with certainty, the rest of the script is copied unchanged.
+ * This leaves some whitespace in place, but never changes the meaning of the code.  Comments starting with
+ * {@code /*!}, which are typically licenses, are retained.</p>
+ */
+final class Minification {
+
+  /** Make no instances. */
+  private Minification() {
+    throw new AssertionError();
+  }
+
+  /**
+   * The version of the minification, which is changed whenever the output changes.
+   */
+  static final int VERSION = 2;
+
+  private static final int NONE = 0;
+  private static final int SPACE = 1;
+  private static final int NEWLINE = 2;
+
+  /**
+   * Characters that do not require surrounding whitespace in CSS.
+   */
+  private static boolean isCssSeparator(char ch) {
+    return ch == '{' || ch == '}' || ch == ';' || ch == ',' || ch == '>';
+  }
+
+  private static boolean isCssWhitespace(char ch) {
+    return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r' || ch == '\f';
+  }
+
+  /**
+   * Characters that may be part of a CSS name, number, or unit, which would merge into a single token when adjacent.
+   */
+  private static boolean isCssName(char ch) {
+    return
+        (ch >= 'a' && ch <= 'z')
+            || (ch >= 'A' && ch <= 'Z')
+            || (ch >= '0' && ch <= '9')
+            || ch == '-'
+            || ch == '_'
+            || ch == '\\'
+            || ch > 127;
+  }
+
+  /**
+   * Finds the end of a CSS string, which ends at its closing quote or an unescaped newline.
+   *
+   * @return  The index after the closing quote, or of the newline
+   */
+  private static int skipCssString(String css, int i, char quote) {
+    int len = css.length();
+    i++;
+    while (i < len) {
+      char ch = css.charAt(i);
+      if (ch == '\\') {
+        i += 2;
+      } else if (ch == quote) {
+        return i + 1;
+      } else if (ch == '\n' || ch == '\r' || ch == '\f') {
+        return i;
+      } else {
+        i++;
+      }
+    }
+    return len;
+  }
+
+  /**
+   * Minifies a stylesheet.
+   */
+  static String css(String css) {
+    int len = css.length();
+    StringBuilder out = new StringBuilder(len);
+    boolean space = false;
+    boolean comment = false;
+    int i = 0;
+    while (i < len) {
+      char ch = css.charAt(i);
+      if (ch == '/' && i + 1 < len && css.charAt(i + 1) == '*') {
+        int end = css.indexOf("*/", i + 2);
+        end = (end == -1) ? len : (end + 2);
+        if (i + 2 < len && css.charAt(i + 2) == '!') {
+          if (space && out.length() > 0) {
+            out.append(' ');
+          }
+          space = false;
+          comment = false;
+          out.append(css, i, end);
+        } else {
+          // A comment is not whitespace: ".a/**/.b" is a compound selector
+          comment = true;
+        }
+        i = end;
+      } else if (isCssWhitespace(ch)) {
+        space = true;
+        i++;
+      } else {
+        int outLen = out.length();
+        if (space) {
+          // Whitespace before a colon may be a descendant combinator, but never matters after one
+          if (outLen > 0 && !isCssSeparator(out.charAt(outLen - 1)) && out.charAt(outLen - 1) != ':'
+              && !isCssSeparator(ch)) {
+            out.append(' ');
+          }
+          space = false;
+        } else if (comment && outLen > 0 && isCssName(out.charAt(outLen - 1)) && isCssName(ch)) {
+          // Keep tokens separated by a comment from merging
+          out.append("/**/");
+        }
+        comment = false;
+        if (ch == '"' || ch == '\'') {
+          int end = skipCssString(css, i, ch);
+          out.append(css, i, end);
+          i = end;
+        } else if (ch == '\\') {
+          // Escapes, including of whitespace, are part of the token
+          out.append(css, i, Math.min(i + 2, len));
+          i += 2;
+        } else if (
+            (ch == 'u' || ch == 'U')
+                && css.regionMatches(true, i, "url(", 0, 4)
+                && (i == 0 || !Character.isLetterOrDigit(css.charAt(i - 1)) && css.charAt(i - 1) != '-')
+        ) {
+          out.append(css, i, i + 4);
+          i += 4;
+          int start = i;
+          while (start < len && isCssWhitespace(css.charAt(start))) {
+            start++;
+          }
+          if (start < len && css.charAt(start) != '"' && css.charAt(start) != '\'') {
+            // Unquoted URL is copied unchanged
+            int end = css.indexOf(')', start);
+            end = (end == -1) ? len : end;
+            out.append(css, start, end);
+            i = end;
+          }
+        } else if (
+            ch == '}'
+                && outLen >= 2
+                && out.charAt(outLen - 1) == ';'
+                && out.charAt(outLen - 2) != '\\'
+        ) {
+          // Last semicolon of a block is optional
+          out.setCharAt(outLen - 1, '}');
+          i++;
+        } else {
+          out.append(ch);
+          i++;
+        }
+      }
+    }
+    return out.toString();
+  }
+
+  private static boolean isLineTerminator(char ch) {
+    return ch == '\n' || ch == '\r' || ch == '\u2028' || ch == '\u2029';
+  }
+
+  private static boolean isJsWhitespace(char ch) {
+    return
+        ch == ' '
+            || ch == '\t'
+            || ch == '\u000B'
+            || ch == '\f'
+            || ch == '\u00A0'
+            || ch == '\uFEFF'
+            || isLineTerminator(ch)
+            || (ch > 127 && Character.getType(ch) == Character.SPACE_SEPARATOR);
+  }
+
+  /**
+   * Characters that may be part of an identifier, keyword, or number.
+   */
+  private static boolean isJsIdentifier(char ch) {
+    return
+        (ch >= 'a' && ch <= 'z')
+            || (ch >= 'A' && ch <= 'Z')
+            || (ch >= '0' && ch <= '9')
+            || ch == '_'
+            || ch == '$'
+            || ch == '\\'
+            || (ch > 127 && !isJsWhitespace(ch));
+  }
+
+  /**
+   * Finds the end of a JavaScript string, which ends at its closing quote or a line terminator.
+   *
+   * @return  The index after the closing quote, or of the line terminator
+   */
+  private static int skipJsString(String js, int i, char quote) {
+    int len = js.length();
+    i++;
+    while (i < len) {
+      char ch = js.charAt(i);
+      if (ch == '\\') {
+        // Line continuation may be CRLF
+        i += js.startsWith("\r\n", i + 1) ? 3 : 2;
+      } else if (ch == quote) {
+        return i + 1;
+      } else if (ch == '\n' || ch == '\r') {
+        return i;
+      } else {
+        i++;
+      }
+    }
+    return len;
+  }
+
+  /**
+   * Finds the end of a template literal, including any nested substitutions.
+   *
+   * @return  The index after the closing backtick, or {@code -1} when unable to find the end with certainty
+   */
+  private static int skipTemplate(String js, int i) {
+    int len = js.length();
+    i++;
+    while (i < len) {
+      char ch = js.charAt(i);
+      if (ch == '\\') {
+        i += 2;
+      } else if (ch == '`') {
+        return i + 1;
+      } else if (ch == '$' && i + 1 < len && js.charAt(i + 1) == '{') {
+        i = skipSubstitution(js, i + 2);
+        if (i == -1) {
+          return -1;
+        }
+      } else {
+        i++;
+      }
+    }
+    return len;
+  }
+
+  /**
+   * Finds the end of a template substitution.  A slash in a substitution may begin a comment, a regular expression,
+   * or division, any of which may contain a brace or backtick, so is not parsed.
+   *
+   * @return  The index after the closing brace, or {@code -1} when the substitution contains a slash
+   */
+  private static int skipSubstitution(String js, int i) {
+    int len = js.length();
+    int depth = 1;
+    while (i < len) {
+      char ch = js.charAt(i);
+      if (ch == '"' || ch == '\'') {
+        i = skipJsString(js, i, ch);
+      } else if (ch == '`') {
+        i = skipTemplate(js, i);
+        if (i == -1) {
+          return -1;
+        }
+      } else if (ch == '/') {
+        return -1;
+      } else if (ch == '{') {
+        depth++;
+        i++;
+      } else if (ch == '}') {
+        i++;
+        if (--depth == 0) {
+          return i;
+        }
+      } else {
+        i++;
+      }
+    }
+    return len;
+  }
+
+  /**
+   * Finds the end of a regular expression literal, including its flags.  Quotes and backticks within a regular
+   * expression are ordinary characters.
+   *
+   * @return  The index after the flags, or {@code -1} when not ended on the same line
+   */
+  private static int skipRegex(String js, int i) {
+    int len = js.length();
+    i++;
+    boolean inClass = false;
+    while (i < len) {
+      char ch = js.charAt(i);
+      if (isLineTerminator(ch)) {
+        return -1;
+      } else if (ch == '\\') {
+        i++;
+        if (i < len && isLineTerminator(js.charAt(i))) {
+          return -1;
+        }
+        i++;
+      } else if (inClass) {
+        if (ch == ']') {
+          inClass = false;
+        }
+        i++;
+      } else if (ch == '[') {
+        inClass = true;
+        i++;
+      } else if (ch == '/') {
+        i++;
+        while (i < len && isJsIdentifier(js.charAt(i))) {
+          i++;
+        }
+        return i;
+      } else {
+        i++;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the end of the current line, to copy it unchanged.  The line terminator is included, since the line may
+   * end within a comment.
+   *
+   * @return  The index after the line terminator, or the end of the script when the rest of the line might begin a
+   *          comment, string, or template literal that continues onto the next line
+   */
+  private static int skipLine(String js, int i) {
+    int len = js.length();
+    int end = i;
+    while (end < len && !isLineTerminator(js.charAt(end))) {
+      end++;
+    }
+    String line = js.substring(i, end);
+    if (end == len || line.endsWith("\\") || line.indexOf('`') != -1 || line.contains("/*")) {
+      // Any of these might continue onto the next line
+      return len;
+    }
+    return js.startsWith("\r\n", end) ? (end + 2) : (end + 1);
+  }
+
+  /**
+   * Keywords that may be followed by a regular expression.
+   */
+  private static final String[] REGEX_KEYWORDS = {
+      "await", "case", "delete", "do", "else", "in", "instanceof", "new", "of", "return", "throw", "typeof", "void",
+      "yield"
+  };
+
+  private static final int REGEX = 0;
+  private static final int DIVISION = 1;
+  private static final int UNKNOWN = 2;
+
+  /**
+   * Determines if a slash begins a regular expression or is division, given the output so far.
+   *
+   * @param  lineEnd  The length of the output after the last line copied unchanged, which may end within a comment
+   *
+   * @return  {@link #REGEX}, {@link #DIVISION}, or {@link #UNKNOWN} when it depends on the context, such as after
+   *          {@code )} that may end either an expression or the condition of an {@code if} statement
+   */
+  private static int getSlashType(StringBuilder out, int lineEnd) {
+    if (out.length() == lineEnd) {
+      return UNKNOWN;
+    }
+    int i = out.length() - 1;
+    while (i >= 0 && (out.charAt(i) == ' ' || out.charAt(i) == '\n')) {
+      i--;
+    }
+    if (i < 0) {
+      return REGEX;
+    }
+    char ch = out.charAt(i);
+    if (
+        ch == ')'
+            || ch == '}'
+            // End of a retained comment or a regular expression
+            || ch == '/'
+            || ((ch == '+' || ch == '-') && i > 0 && out.charAt(i - 1) == ch)
+    ) {
+      return UNKNOWN;
+    }
+    if (ch == ']' || ch == '.' || ch == '"' || ch == '\'' || ch == '`') {
+      return DIVISION;
+    }
+    if (isJsIdentifier(ch)) {
+      int end = i + 1;
+      while (i >= 0 && isJsIdentifier(out.charAt(i))) {
+        i--;
+      }
+      if (i < 0 || out.charAt(i) != '.') {
+        String word = out.substring(i + 1, end);
+        for (String keyword : REGEX_KEYWORDS) {
+          if (keyword.equals(word)) {
+            return REGEX;
+          }
+        }
+      }
+      return DIVISION;
+    }
+    return REGEX;
+  }
+
+  /**
+   * Writes any pending whitespace that is required between the output so far and the next character.
+   */
+  private static void appendWhitespace(StringBuilder out, int whitespace, boolean afterRegex, char next) {
+    int outLen = out.length();
+    if (whitespace == NONE || outLen == 0) {
+      return;
+    }
+    char prev = out.charAt(outLen - 1);
+    if (isLineTerminator(prev)) {
+      // After a line copied unchanged
+      return;
+    }
+    if (whitespace == NEWLINE) {
+      // Newlines are kept for automatic semicolon insertion, except where they cannot matter
+      if (
+          "{[(,;".indexOf(prev) == -1
+              && "}]),;".indexOf(next) == -1
+      ) {
+        out.append('\n');
+        return;
+      }
+    }
+    if (
+        (isJsIdentifier(prev) && (isJsIdentifier(next) || next == '.'))
+            || ((prev == '+' || prev == '-' || prev == '/') && prev == next)
+            || (afterRegex && isJsIdentifier(next))
+            || (prev == '<' && next == '!')
+            || (prev == '-' && next == '>')
+    ) {
+      out.append(' ');
+    }
+  }
+
+  /**
+   * Minifies a script.  Line breaks are retained where they may affect automatic semicolon insertion.
+   */
+  static String javascript(String js) {
+    int len = js.length();
+    StringBuilder out = new StringBuilder(len);
+    int i = 0;
+    int lineEnd = -1;
+    if (js.startsWith("#!")) {
+      // Hashbang is kept unchanged
+      i = skipLine(js, 0);
+      out.append(js, 0, i);
+      lineEnd = i;
+    }
+    int whitespace = NONE;
+    int regexEnd = -1;
+    while (i < len) {
+      char ch = js.charAt(i);
+      if (ch == '/' && i + 1 < len && js.charAt(i + 1) == '/') {
+        // Line comment, the line terminator is whitespace
+        i += 2;
+        while (i < len && !isLineTerminator(js.charAt(i))) {
+          i++;
+        }
+        whitespace = Math.max(whitespace, SPACE);
+      } else if (ch == '/' && i + 1 < len && js.charAt(i + 1) == '*') {
+        int end = js.indexOf("*/", i + 2);
+        end = (end == -1) ? len : (end + 2);
+        if (i + 2 < len && js.charAt(i + 2) == '!') {
+          appendWhitespace(out, whitespace, out.length() == regexEnd, ch);
+          whitespace = NONE;
+          out.append(js, i, end);
+        } else {
+          boolean multiline = false;
+          for (int j = i + 2; j < end; j++) {
+            if (isLineTerminator(js.charAt(j))) {
+              multiline = true;
+              break;
+            }
+          }
+          whitespace = Math.max(whitespace, multiline ? NEWLINE : SPACE);
+        }
+        i = end;
+      } else if (isJsWhitespace(ch)) {
+        whitespace = Math.max(whitespace, isLineTerminator(ch) ? NEWLINE : SPACE);
+        i++;
+      } else {
+        appendWhitespace(out, whitespace, out.length() == regexEnd, ch);
+        whitespace = NONE;
+        int end;
+        int slashType;
+        if (ch == '"' || ch == '\'') {
+          end = skipJsString(js, i, ch);
+        } else if (ch == '`') {
+          end = skipTemplate(js, i);
+          if (end == -1) {
+            end = len;
+          }
+        } else if (ch == '/' && (slashType = getSlashType(out, lineEnd)) != DIVISION) {
+          end = (slashType == REGEX) ? skipRegex(js, i) : -1;
+          if (end == -1) {
+            // Unsure, or not a regular expression ending on this line
+            end = skipLine(js, i);
+            lineEnd = out.length() + (end - i);
+          } else {
+            // Flags would be extended by a following identifier
+            regexEnd = out.length() + (end - i);
+          }
+        } else {
+          end = i + 1;
+        }
+        out.append(js, i, end);
+        i = end;
+      }
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Minifies content into a {@link ContentStore}, named by a hash of the original content.
+ *
+ * <p>The name includes the {@linkplain Minification#VERSION minification version}, the type, and the context path,
+ * so the content of a name never changes and may be cached indefinitely.  Content is only minified the first time
+ * its name is registered, and the store persists across restarts, so unchanged resources are not minified
+ * again.</p>
+ */
+final class Minified {
+
+  private static final Logger logger = Logger.getLogger(Minified.class.getName());
+
+  /**
+   * The context-relative path prefix of all minified content.
+   */
+  static final String PATH_PREFIX = "/ao-web-resources-renderer/minified/";
+
+  private static final String ALGORITHM = "SHA-256";
+
+  /**
+   * The number of bytes of the hash used as the name.
+   */
+  private static final int ID_BYTES = 16;
+
+  private final ContentStore store;
+
+  Minified(ContentStore store) {
+    this.store = store;
+  }
+
+  /**
+   * Checks if minification is enabled, which is when the store is enabled.
+   */
+  boolean isEnabled() {
+    return store.isEnabled();
+  }
+
+  /**
+   * Checks if the given URI is minified content.
+   */
+  static boolean isMinified(String uri) {
+    return uri.startsWith(PATH_PREFIX);
+  }
+
+  /**
+   * Gets the type of minified content.
+   *
+   * @param  name  The name of the content, which is its path after {@link #PATH_PREFIX}
+   *
+   * @return  The type or {@code null} when not a valid name
+   */
+  static Bundles.Type getType(String name) {
+    return ContentStore.getType(name);
+  }
+
+  /**
+   * Registers content to be minified, minifying and storing when not already stored.
+   *
+   * @param  resourcePath  The context-relative path of the resource, which is transformed so that it may be moved
+   *                       into the store, or {@code null} when already transformed, such as a bundle
+   * @param  content  The content, encoded as UTF-8
+   *
+   * @return  The context-relative URI of the minified content
+   */
+  String register(Bundles.Type type, String contextPath, String resourcePath, byte[] content) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(ALGORITHM + " is required by the Java platform", e);
+    }
+    digest.update((Minification.VERSION + "\n" + type.name() + '\n' + contextPath + '\n' + resourcePath + '\n')
+        .getBytes(StandardCharsets.UTF_8));
+    String name = Base64.getUrlEncoder().withoutPadding().encodeToString(
+        Arrays.copyOf(digest.digest(content), ID_BYTES)
+    ) + type.getExtension();
+    if (!store.contains(name)) {
+      String text = new String(content, StandardCharsets.UTF_8);
+      // Strip any byte order mark
+      if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+        text = text.substring(1);
+      }
+      if (resourcePath != null) {
+        text = type.transform(contextPath, resourcePath, text);
+      }
+      byte[] minified = ((type == Bundles.Type.STYLE) ? Minification.css(text) : Minification.javascript(text))
+          .getBytes(StandardCharsets.UTF_8);
+      store.store(name, minified);
+      if (logger.isLoggable(Level.FINE)) {
+        logger.fine("minified: " + (resourcePath == null ? "bundle" : resourcePath) + " -> " + PATH_PREFIX + name
+            + ", " + content.length + " -> " + minified.length + " bytes");
+      }
+    }
+    return PATH_PREFIX + name;
+  }
+
+  /**
+   * Gets minified content.
+   *
+   * @param  name  The name of the content, which is its path after {@link #PATH_PREFIX}
+   *
+   * @return  The content, encoded as UTF-8, or {@code null} when not found
+   */
+  byte[] getContent(String name) throws IOException {
+    return store.getContent(name);
+  }
+
+  /**
+   * Gets an encoded variant of minified content.
+   *
+   * @param  name  The name of the content, which is its path after {@link #PATH_PREFIX}
+   *
+   * @return  The encoded content or {@code null} when not found
+   */
+  byte[] getContent(String name, Renderer.ContentEncoder encoder) throws IOException {
+    return store.getContent(name, encoder);
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Replaces resources with their {@linkplain Minified minified} content.
+ *
+ * <p>Resources within this application, including {@linkplain Bundles bundles}, are minified the first time each
+ * version is rendered, then reused while their built URL is unchanged, or until invalidated.  Resources
+ * that may not be read are not minified.  The order of resources is unchanged.</p>
+ *
+ * @param  <R>  The type of resource
+ */
+abstract class Minifier<R> {
+
+  private static final Logger logger = Logger.getLogger(Minifier.class.getName());
+
+  /**
+   * The maximum number of minified URIs retained.
+   */
+  private static final int MAX_URIS = 1000;
+
+  private final ServletContext servletContext;
+  private final UrlCache urlCache;
+  private final Bundles bundles;
+  private final Minified minified;
+  private final Bundles.Type type;
+
+  /**
+   * The minified URI of a version of a resource.
+   */
+  private static final class Entry {
+
+    /**
+     * The built URL of the resource, including the context path and any last-modified or fingerprint parameter.
+     */
+    private final String url;
+
+    /**
+     * The minified URI or {@code ""} when not minified.
+     */
+    private final String minifiedUri;
+
+    private Entry(String url, String minifiedUri) {
+      this.url = url;
+      this.minifiedUri = minifiedUri;
+    }
+  }
+
+  /**
+   * The minified URI for each resource URI, used while its built URL is unchanged.
+   */
+  private final LruCache<String, Entry> uris = new LruCache<>(MAX_URIS);
+
+  Minifier(ServletContext servletContext, UrlCache urlCache, Bundles bundles, Minified minified, Bundles.Type type) {
+    this.servletContext = servletContext;
+    this.urlCache = urlCache;
+    this.bundles = bundles;
+    this.minified = minified;
+    this.type = type;
+  }
+
+  /**
+   * Gets the URI of a resource.
+   */
+  abstract String getUri(R resource);
+
+  /**
+   * Creates the resource for minified content, with the same attributes as the original resource.
+   */
+  abstract R newMinified(R original, String uri);
+
+  /**
+   * Gets the minified URI for a resource.
+   *
+   * @param  cachedOnly  When the resource may not be read or minified, using only a cached minified URI
+   *
+   * @return  The minified URI or {@code null} when not minified
+   */
+  private String getMinifiedUri(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      String uri,
+      boolean cachedOnly
+  ) throws IOException {
+    if (uri == null || Minified.isMinified(uri)) {
+      return null;
+    }
+    String contextPath = request.getContextPath();
+    String resourcePath;
+    String url;
+    if (Bundles.isBundle(uri)) {
+      resourcePath = null;
+      url = contextPath + uri;
+    } else {
+      resourcePath = ResourcePaths.getResourcePath(uri);
+      if (resourcePath == null || !resourcePath.startsWith("/")) {
+        return null;
+      }
+      url = urlCache.getURL(request, response, uri);
+      if (url == null) {
+        return null;
+      }
+    }
+    Entry entry = uris.get(uri);
+    if (entry == null || !entry.url.equals(url)) {
+      if (cachedOnly) {
+        return null;
+      }
+      entry = new Entry(url, minify(contextPath, uri, resourcePath));
+      uris.put(uri, entry);
+    }
+    return entry.minifiedUri.isEmpty() ? null : entry.minifiedUri;
+  }
+
+  /**
+   * Reads and minifies a resource.
+   *
+   * @param  resourcePath  The context-relative path of the resource or {@code null} for a bundle
+   *
+   * @return  The minified URI or {@code ""} when not minified
+   */
+  private String minify(String contextPath, String uri, String resourcePath) {
+    try {
+      byte[] content;
+      if (resourcePath == null) {
+        String name = uri.substring(Bundles.PATH_PREFIX.length());
+        if (Bundles.getType(name) != type) {
+          return "";
+        }
+        content = bundles.getContent(name);
+        if (content == null) {
+          if (logger.isLoggable(Level.FINE)) {
+            logger.fine("bundle not found, not minifying: " + uri);
+          }
+          return "";
+        }
+      } else {
+        try (InputStream in = servletContext.getResourceAsStream(resourcePath)) {
+          if (in == null) {
+            if (logger.isLoggable(Level.FINE)) {
+              logger.fine("resource not found, not minifying: " + resourcePath);
+            }
+            return "";
+          }
+          content = in.readAllBytes();
+        }
+      }
+      return minified.register(type, contextPath, resourcePath, content);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Unable to minify: " + uri, e);
+      return "";
+    }
+  }
+
+  /**
+   * Replaces the given resources with their minified content.
+   *
+   * @param  resources  The sorted and filtered resources
+   *
+   * @return  The unmodifiable resources with minified content, or {@code resources} itself when nothing minified
+   */
+  final List<R> minify(HttpServletRequest request, HttpServletResponse response, List<R> resources)
+      throws IOException {
+    return minify(request, response, resources, false);
+  }
+
+  /**
+   * Replaces the given resources with their minified content, using only resources already minified, without
+   * reading or minifying any resource.
+   *
+   * @param  resources  The sorted and filtered resources
+   *
+   * @return  The unmodifiable resources with minified content, or {@code resources} itself when nothing minified
+   */
+  final List<R> minifyCached(HttpServletRequest request, HttpServletResponse response, List<R> resources)
+      throws IOException {
+    return minify(request, response, resources, true);
+  }
+
+  private List<R> minify(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      List<R> resources,
+      boolean cachedOnly
+  ) throws IOException {
+    List<R> result = null;
+    int size = resources.size();
+    for (int i = 0; i < size; i++) {
+      R resource = resources.get(i);
+      String minifiedUri = getMinifiedUri(request, response, getUri(resource), cachedOnly);
+      if (minifiedUri != null) {
+        if (result == null) {
+          result = new ArrayList<>(resources);
+        }
+        result.set(i, newMinified(resource, minifiedUri));
+      }
+    }
+    return (result == null) ? resources : Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Discards the minified URIs of a resource, so a changed resource without a versioned URL is minified again.
+   *
+   * @param  href  The resource URI
+   */
+  void invalidate(String href) {
+    uris.remove(href);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for rendering the styles, or scripts of a single position, of a
+ * {@link Renderer.Resolution}.
+ */
+@Name("com.aoapps.web.resources.renderer.Render")
+@Label("Render")
+@Category({"AO Industries", "Web Resources"})
+@Description("Renders the styles, or scripts of a single position")
+final class RenderEvent extends Event {
+
+  @Label("Type")
+  @Description("Either \"styles\" or \"scripts\"")
+  String type;
+
+  @Label("Position")
+  @Description("The position of scripts rendered")
+  String position;
+
+  @Label("Direction")
+  @Description("The direction of styles rendered")
+  String direction;
+
+  @Label("Registries")
+  @Description("The number of non-null registries")
+  int registries;
+
+  @Label("Groups")
+  @Description("The number of activated groups")
+  int groups;
+
+  @Label("Resources")
+  @Description("The number of resources rendered")
+  int resources;
+
+  @Label("Plan Cached")
+  @Description("Was the render plan found in the cache?")
+  boolean planCached;
+
+  @Label("Outcome")
+  @Description("The comment written in place of any resources, if any")
+  String outcome;
+}
@@ -0,0 +1,212 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable, pre-sorted, and pre-filtered list of resources to be rendered.
+ *
+ * <p>Plans are cached by {@link Renderer}, keyed by the filter applied (such as
+ * {@linkplain com.aoapps.web.resources.registry.Style.Direction direction} or
+ * {@linkplain com.aoapps.web.resources.registry.Script.Position position}) along with the identity of the
+ * {@linkplain com.aoapps.web.resources.registry.Styles#getSorted() sorted snapshot} of each participating group.
+ * The registry retains its sorted snapshot until the group is modified, so the snapshot identity serves as a
+ * version: a modified group produces a new snapshot, and plans built from the old snapshot are no longer
+ * matched.</p>
+ *
+ * <p>Cached keys reference the snapshots {@linkplain Key#toWeak(java.lang.ref.ReferenceQueue) weakly}, so the
+ * snapshots of modified groups may be garbage collected, and their plans removed, without waiting for
+ * eviction.</p>
+ *
+ * @param  <R>  The type of resource
+ */
+final class RenderPlan<R> {
+
+  /**
+   * The key for a cached plan.
+   * Compares the sorted snapshots by identity.
+   */
+  static final class Key {
+
+    /**
+     * A weak reference to a snapshot, which knows the key to remove once the snapshot is collected.
+     */
+    static final class WeakSnapshot extends WeakReference<Object> {
+
+      private final Key key;
+
+      private WeakSnapshot(Object snapshot, ReferenceQueue<Object> queue, Key key) {
+        super(snapshot, queue);
+        this.key = key;
+      }
+
+      /**
+       * Gets the key that referenced the collected snapshot.
+       */
+      Key getKey() {
+        return key;
+      }
+    }
+
+    private final Object filter;
+
+    /**
+     * The snapshots, or {@link WeakSnapshot} when {@link #weak}.
+     */
+    private final Object[] snapshots;
+    private final boolean weak;
+    private final int hash;
+
+    /**
+     * @param  filter  The value used to filter the resources, such as direction or position.
+     *
+     * @param  snapshots  The sorted snapshot of each participating group, in order.
+     *                    This array is used directly and must not be modified by the caller.
+     */
+    Key(Object filter, Object[] snapshots) {
+      this.filter = filter;
+      this.snapshots = snapshots;
+      this.weak = false;
+      int h = Objects.hashCode(filter);
+      for (Object snapshot : snapshots) {
+        h = h * 31 + System.identityHashCode(snapshot);
+      }
+      this.hash = h;
+    }
+
+    private Key(Key strong, ReferenceQueue<Object> queue) {
+      assert !strong.weak;
+      this.filter = strong.filter;
+      int len = strong.snapshots.length;
+      this.snapshots = new Object[len];
+      for (int i = 0; i < len; i++) {
+        this.snapshots[i] = new WeakSnapshot(strong.snapshots[i], queue, this);
+      }
+      this.weak = true;
+      this.hash = strong.hash;
+    }
+
+    /**
+     * Gets an equal key that references the snapshots weakly, for use when adding to a cache.
+     *
+     * @param  queue  Notified of each {@link WeakSnapshot} once its snapshot is collected
+     */
+    Key toWeak(ReferenceQueue<Object> queue) {
+      return new Key(this, queue);
+    }
+
+    /**
+     * Gets the snapshot at the given index.
+     *
+     * @return  The snapshot or {@code null} when collected
+     */
+    private Object getSnapshot(int index) {
+      Object snapshot = snapshots[index];
+      return weak ? ((WeakSnapshot) snapshot).get() : snapshot;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      if (hash != other.hash || !Objects.equals(filter, other.filter)) {
+        return false;
+      }
+      int len = snapshots.length;
+      if (len != other.snapshots.length) {
+        return false;
+      }
+      for (int i = 0; i < len; i++) {
+        Object snapshot = getSnapshot(i);
+        if (snapshot == null || snapshot != other.getSnapshot(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      int len = snapshots.length;
+      Object[] current = new Object[len];
+      for (int i = 0; i < len; i++) {
+        current[i] = getSnapshot(i);
+      }
+      return "RenderPlan.Key(" + filter + ", " + Arrays.toString(current) + ')';
+    }
+  }
+
+  private final List<R> resources;
+  private final boolean hasResources;
+
+  /**
+   * @param  resources  The sorted and filtered resources.  This list is used directly and must not be modified
+   *                    by the caller.
+   *
+   * @param  hasResources  Were there any resources before filtering?
+   */
+  RenderPlan(List<R> resources, boolean hasResources) {
+    assert hasResources || resources.isEmpty();
+    this.resources = Collections.unmodifiableList(resources);
+    this.hasResources = hasResources;
+  }
+
+  /**
+   * The sorted and filtered resources to render.
+   *
+   * @return  The unmodifiable list of resources (which may be empty).
+   */
+  List<R> getResources() {
+    return resources;
+  }
+
+  /**
+   * Were there any resources before filtering?
+   * Used to distinguish between no resources and no applicable resources.
+   */
+  boolean hasResources() {
+    return hasResources;
+  }
+
+  @Override
+  public String toString() {
+    return "RenderPlan(" + resources + ", " + hasResources + ')';
+  }
+}
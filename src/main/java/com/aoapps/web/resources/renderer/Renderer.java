@@ -1,6 +1,6 @@
 /*
  * ao-web-resources-renderer - Renders HTML for web resource management.
- * Copyright (C) 2020, 2021, 2022, 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2020, 2021, 2022, 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,14 +24,12 @@
 package com.aoapps.web.resources.renderer;
 
 import com.aoapps.html.any.AnyLINK;
+import com.aoapps.html.any.AnyMetadataContent;
 import com.aoapps.html.any.AnySCRIPT;
 import com.aoapps.html.any.AnyScriptSupportingContent;
 import com.aoapps.html.any.AnyUnion_Metadata_Phrasing;
 import com.aoapps.html.any.Content;
-import com.aoapps.net.EmptyURIParameters;
 import com.aoapps.servlet.attribute.ScopeEE;
-import com.aoapps.servlet.lastmodified.AddLastModified;
-import com.aoapps.servlet.lastmodified.LastModifiedUtil;
 import com.aoapps.web.resources.registry.Group;
 import com.aoapps.web.resources.registry.Registry;
 import com.aoapps.web.resources.registry.Script;
@@ -39,19 +37,40 @@ import com.aoapps.web.resources.registry.Scripts;
 import com.aoapps.web.resources.registry.Style;
 import com.aoapps.web.resources.registry.Styles;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.servlet.annotation.WebListener;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
@@ -59,8 +78,9 @@ import javax.servlet.http.HttpSession;
 /**
  * Renders the HTML output for web resource management.
  *
- * <p>This provides a basic implementation without optimization.
- * However, it provides a hook for optimizers to affect what it rendered.</p>
+ * <p>This provides a basic implementation with optional, built-in optimizations enabled by context init parameters.
+ * Additional {@linkplain StyleOptimizer style} and {@linkplain ScriptOptimizer script} optimizers may be added to
+ * affect what is rendered.</p>
  *
  * <p>This is placed in a distinct project from {@link com.aoapps.web.resources.servlet.RegistryEE} because it
  * adds several dependencies that are not required by projects that simply
@@ -86,110 +106,1716 @@ public class Renderer {
       NO_SCRIPTS            = "<!-- ao-web-resources-renderer: no scripts -->",
       NO_APPLICABLE_SCRIPTS = "<!-- ao-web-resources-renderer: no applicable scripts -->";
 
+  /**
+   * The name of the context init parameter that, when {@code "true"}, caches the serialized text of each
+   * {@code <link>} and {@code <script>} tag, and writes it with a single unsafe call instead of through the fluent
+   * API.  The text is captured the first time each tag is written, keyed by the doctype and serialization of the
+   * document and by every attribute, including the built URL, so changed resources are written with new text.
+   *
+   * <p>Cached text cannot follow the indentation of a document, so tags are only cached for documents that neither
+   * indent nor automatically add newlines, and are written through the fluent API otherwise.  Tags with a URL
+   * changed by {@linkplain HttpServletResponse#encodeURL(java.lang.String) response encoding}, such as by URL
+   * rewriting of the session ID, are also written through the fluent API.</p>
+   */
+  public static final String TAG_CACHE_INIT_PARAM = Renderer.class.getName() + ".tagCache";
+
+  /**
+   * The name of the context init parameter that, when {@code "true"}, watches the files behind resources in a
+   * background thread.  Built URLs for watched resources are then cached until the resource changes, instead of
+   * being periodically re-built.
+   */
+  public static final String WATCH_INIT_PARAM = Renderer.class.getName() + ".watch";
+
+  /**
+   * The name of the context init parameter that, when {@code "true"}, replaces the last-modified parameter of
+   * resources within the application with a {@linkplain #FINGERPRINT_PARAM fingerprint} of their content.
+   *
+   * <p>Fingerprints are computed in the background, once per version of a resource.  The last-modified parameter is
+   * used until the fingerprint is available.  A resource is fingerprinted again when its last-modified time changes,
+   * which is noticed within a second, or immediately when combined with {@link #WATCH_INIT_PARAM}.</p>
+   *
+   * <p>A fingerprinted URL always has the same content, so may be served with long-term, immutable cache headers.
+   * Configuring these headers, such as by matching {@link #FINGERPRINT_PARAM} at a CDN, is outside the scope of
+   * the renderer.</p>
+   */
+  public static final String FINGERPRINT_INIT_PARAM = Renderer.class.getName() + ".fingerprint";
+
+  /**
+   * The name of the URL parameter containing the content fingerprint.
+   *
+   * @see  #FINGERPRINT_INIT_PARAM
+   */
+  public static final String FINGERPRINT_PARAM = "fingerprint";
+
+  /**
+   * The name of the context init parameter that, when {@code "true"}, combines consecutive styles and scripts into
+   * bundles.  Styles are bundled when within this application and having the same media, crossorigin, and disabled
+   * attributes.  Scripts are bundled when within this application and having the same position, async, defer, and
+   * crossorigin attributes.  Bundles are served by {@link BundleServlet}.
+   *
+   * <p>Relative references in bundled stylesheets are rewritten.  Since {@code @import} rules are only honored by
+   * browsers at the start of a stylesheet, a stylesheet using {@code @import} always starts a new bundle.  Bundled
+   * scripts share a single file, so a {@code "use strict"} directive at the start of the first script applies to the
+   * entire bundle.</p>
+   *
+   * <p>Each bundle is built when first rendered, in the request thread, and stored in the
+   * {@linkplain #BUNDLE_DIRECTORY_INIT_PARAM bundle directory}, named by a hash of its content.  The content of a
+   * bundle URL never changes, and the directory persists across restarts, so bundle URLs remain valid after a
+   * restart and, when the directory is shared, on every server of a cluster.</p>
+   */
+  public static final String BUNDLE_INIT_PARAM = Renderer.class.getName() + ".bundle";
+
+  /**
+   * The name of the context init parameter with the directory that stores bundles.  Defaults to
+   * {@code ao-web-resources-renderer/bundles} within the
+   * {@linkplain ServletContext#TEMPDIR temporary directory of the application}.  A cluster may share a
+   * directory.
+   *
+   * @see  #BUNDLE_INIT_PARAM
+   */
+  public static final String BUNDLE_DIRECTORY_INIT_PARAM = Renderer.class.getName() + ".bundleDirectory";
+
+  /**
+   * The name of the context init parameter that, when {@code "true"}, replaces styles and scripts within this
+   * application, including bundles, with minified content.  Comments and whitespace are removed, except comments
+   * starting with {@code /*!}, which are typically licenses.  Minified content is served by
+   * {@link MinifiedServlet}.
+   *
+   * <p>Each version of a resource is minified on first use, in the request thread, and stored in the
+   * {@linkplain #MINIFY_DIRECTORY_INIT_PARAM minify directory}, named by a hash of its content.  The directory
+   * persists across restarts, so unchanged resources are not minified again.</p>
+   */
+  public static final String MINIFY_INIT_PARAM = Renderer.class.getName() + ".minify";
+
+  /**
+   * The name of the context init parameter with the directory that stores minified content.  Defaults to
+   * {@code ao-web-resources-renderer/minified} within the
+   * {@linkplain ServletContext#TEMPDIR temporary directory of the application}.  A cluster may share a
+   * directory.
+   *
+   * @see  #MINIFY_INIT_PARAM
+   */
+  public static final String MINIFY_DIRECTORY_INIT_PARAM = Renderer.class.getName() + ".minifyDirectory";
+
+  /**
+   * The name of the context init parameter that, when {@code "true"}, stores a gzip variant of
+   * {@linkplain #BUNDLE_INIT_PARAM bundles} and {@linkplain #MINIFY_INIT_PARAM minified content}, which is served to
+   * clients accepting the encoding.  Content is compressed once, at the best compression, instead of on every
+   * response.  Other encodings may be added by
+   * {@link #addContentEncoder(com.aoapps.web.resources.renderer.Renderer.ContentEncoder)}.
+   *
+   * <p>Any compression of these responses by a filter or proxy should be disabled, as the content is already
+   * compressed.</p>
+   */
+  public static final String PRECOMPRESS_INIT_PARAM = Renderer.class.getName() + ".precompress";
+
+  /**
+   * The name of the context init parameter that, when {@code "true"}, adds a
+   * <a href="https://developer.mozilla.org/en-US/docs/Web/HTTP/Headers/Link">{@code Link}</a> header with
+   * {@code rel=preload} for each style and script rendered, so browsers and proxies may begin fetching resources
+   * while the page is still being generated.  Headers are only added while the response is not yet committed, so
+   * are most effective when the head is rendered before the response is flushed.  Disabled styles are not
+   * preloaded.
+   */
+  public static final String PRELOAD_INIT_PARAM = Renderer.class.getName() + ".preload";
+
+  /**
+   * The name of the context init parameter that, when {@code "true"}, adds an
+   * <a href="https://www.w3.org/TR/SRI/">{@code integrity}</a> attribute with the SHA-384 of the content to styles
+   * and scripts within this application, including bundles.
+   *
+   * <p>Digests are computed lazily, in the background, when a resource is first rendered, not when the application
+   * starts.  The attribute is omitted until available for the current version, so the first responses referencing a
+   * resource do not have it.  The version is the URL with its last-modified parameter, so a resource that changes is
+   * digested again instead of keeping a stale digest.  When the resource is not
+   * {@linkplain #WATCH_INIT_PARAM watched}, the version also includes the modification time of its file, since the
+   * URL may not have a last-modified parameter, and a file without a readable modification time has no digest.
+   * Resources within a JAR do not change without a redeploy.  Bundles and minified content never change.  A resource
+   * that is not found or cannot be read is not retried until its version changes.  The digest is also added to any
+   * {@linkplain #PRELOAD_INIT_PARAM preload}, which a browser otherwise does not use.  A browser refuses a resource
+   * that does not match its integrity, so combine with {@link #WATCH_INIT_PARAM} when resources may change without a
+   * redeploy, to detect changes immediately.</p>
+   */
+  public static final String INTEGRITY_INIT_PARAM = Renderer.class.getName() + ".integrity";
+
+  /**
+   * The name of the context init parameter that, when a positive number of bytes, inlines stylesheets within this
+   * application that are no larger than this size.  Inlined stylesheets are written as {@code <style>} elements,
+   * saving a request for each small stylesheet.  Relative references are rewritten to be relative to the context
+   * path.  Stylesheets are only inlined where the content supports {@code <style>} elements, and disabled
+   * stylesheets are not inlined.
+   *
+   * <p>Content is read once and cached, along with the decision to not inline larger stylesheets.  The
+   * {@code <style>} element is encoded once for each doctype and serialization, then written from cache, except in
+   * documents that indent or automatically add newlines.  Combine with {@link #WATCH_INIT_PARAM} to re-read
+   * stylesheets when changed without a redeploy.</p>
+   */
+  public static final String INLINE_STYLES_INIT_PARAM = Renderer.class.getName() + ".inlineStyles";
+
+  /**
+   * The name of the context init parameter that, when a positive number of bytes, inlines scripts within this
+   * application that are no larger than this size.  Inlined scripts are written as the body of the
+   * {@code <script>} element, saving a request for each small script.  Scripts that are {@code async} or
+   * {@code defer} are not inlined, since inline scripts always run immediately.
+   *
+   * <p>Content is read once and cached, along with the decision to not inline larger scripts.  The
+   * {@code <script>} element is encoded once for each doctype and serialization, then written from cache, except in
+   * documents that indent or automatically add newlines.  Combine with {@link #WATCH_INIT_PARAM} to re-read scripts
+   * when changed without a redeploy.</p>
+   */
+  public static final String INLINE_SCRIPTS_INIT_PARAM = Renderer.class.getName() + ".inlineScripts";
+
   /**
    * Initializes the {@link Renderer} during {@linkplain ServletContextListener application start-up}.
+   * Starts and stops the background resource watcher when enabled by {@link #WATCH_INIT_PARAM},
+   * fingerprinting when enabled by {@link #FINGERPRINT_INIT_PARAM}, and integrity digests when enabled by
+   * {@link #INTEGRITY_INIT_PARAM}.
+   */
+  @WebListener("Initializes the Renderer during application start-up.")
+  public static class Initializer implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+      ServletContext servletContext = event.getServletContext();
+      Renderer renderer = get(servletContext);
+      if (Boolean.parseBoolean(servletContext.getInitParameter(WATCH_INIT_PARAM))) {
+        renderer.watcher.start();
+      }
+      if (Boolean.parseBoolean(servletContext.getInitParameter(FINGERPRINT_INIT_PARAM))) {
+        renderer.fingerprints.start();
+      }
+      if (Boolean.parseBoolean(servletContext.getInitParameter(INTEGRITY_INIT_PARAM))) {
+        renderer.integrities.start();
+      }
+      renderer.registerMetrics(servletContext);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+      Renderer renderer = APPLICATION_ATTRIBUTE.context(event.getServletContext()).get();
+      if (renderer != null) {
+        renderer.unregisterMetrics();
+        renderer.watcher.stop();
+        renderer.fingerprints.stop();
+        renderer.integrities.stop();
+      }
+    }
+  }
+
+  /**
+   * Serves the bundles created when enabled by {@link #BUNDLE_INIT_PARAM}.
+   * The bundle URL is a hash of its content, so bundles are served with long-term, immutable cache headers.
+   */
+  @WebServlet(Bundles.PATH_PREFIX + "*")
+  public static class BundleServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+      Renderer renderer = get(getServletContext());
+      Bundles bundles = renderer.bundles;
+      String pathInfo = request.getPathInfo();
+      String name = (pathInfo == null) ? null : pathInfo.substring(1);
+      ContentEncoder encoder = renderer.getContentEncoder(request);
+      byte[] content;
+      if (name == null) {
+        content = null;
+      } else if (encoder == null) {
+        content = bundles.getContent(name);
+      } else {
+        content = bundles.getContent(name, encoder);
+      }
+      if (content == null) {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        return;
+      }
+      renderer.writeContent(response, Bundles.getType(name), encoder, content);
+    }
+  }
+
+  /**
+   * Serves the minified content created when enabled by {@link #MINIFY_INIT_PARAM}.
+   * The minified URL changes whenever the content changes, so minified content is served with long-term, immutable
+   * cache headers.
+   */
+  @WebServlet(Minified.PATH_PREFIX + "*")
+  public static class MinifiedServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+      Renderer renderer = get(getServletContext());
+      Minified minified = renderer.minified;
+      String pathInfo = request.getPathInfo();
+      String name = (pathInfo == null) ? null : pathInfo.substring(1);
+      ContentEncoder encoder = renderer.getContentEncoder(request);
+      byte[] content;
+      if (name == null) {
+        content = null;
+      } else if (encoder == null) {
+        content = minified.getContent(name);
+      } else {
+        content = minified.getContent(name, encoder);
+      }
+      if (content == null) {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        return;
+      }
+      renderer.writeContent(response, Minified.getType(name), encoder, content);
+    }
+  }
+
+  /**
+   * Writes content of bundles or minified content, with long-term, immutable cache headers.
+   *
+   * @param  encoder  The encoder of the content or {@code null} when not encoded
+   */
+  private void writeContent(HttpServletResponse response, Bundles.Type type, ContentEncoder encoder, byte[] content)
+      throws IOException {
+    response.setContentType(type.getContentType());
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader("Cache-Control", "public, max-age=31536000, immutable");
+    if (!contentEncoders.isEmpty()) {
+      response.setHeader(VARY_HEADER, ACCEPT_ENCODING_HEADER);
+    }
+    if (encoder != null) {
+      response.setHeader(CONTENT_ENCODING_HEADER, encoder.getName());
+    }
+    response.setContentLength(content.length);
+    response.getOutputStream().write(content);
+  }
+
+  private static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+
+  private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+
+  private static final String VARY_HEADER = "Vary";
+
+  /**
+   * Selects the first content encoder, in order, that is acceptable by the {@code Accept-Encoding} request headers.
+   *
+   * @return  The encoder or {@code null} to send the content unencoded
+   *
+   * @see  #getContentEncoder(java.util.List, java.util.Enumeration)
+   */
+  private ContentEncoder getContentEncoder(HttpServletRequest request) {
+    if (contentEncoders.isEmpty()) {
+      return null;
+    }
+    return getContentEncoder(contentEncoders, request.getHeaders(ACCEPT_ENCODING_HEADER));
+  }
+
+  /**
+   * Selects the first content encoder, in order, that is acceptable by the given {@code Accept-Encoding} headers.
+   * A coding is acceptable when listed, or matched by {@code *}, with a non-zero quality.
+   *
+   * @param  headers  The values of the {@code Accept-Encoding} headers, or {@code null} when unavailable
+   *
+   * @return  The encoder or {@code null} to send the content unencoded
+   */
+  static ContentEncoder getContentEncoder(List<ContentEncoder> contentEncoders, Enumeration<String> headers) {
+    Map<String, Boolean> accepted = new HashMap<>();
+    while (headers != null && headers.hasMoreElements()) {
+      for (String coding : headers.nextElement().split(",")) {
+        String[] params = coding.split(";");
+        String name = params[0].trim().toLowerCase(Locale.ROOT);
+        if (!name.isEmpty()) {
+          boolean acceptable = true;
+          for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.regionMatches(true, 0, "q=", 0, 2)) {
+              try {
+                acceptable = Float.parseFloat(param.substring(2).trim()) > 0;
+              } catch (NumberFormatException e) {
+                acceptable = false;
+              }
+            }
+          }
+          accepted.put(name, acceptable);
+        }
+      }
+    }
+    for (ContentEncoder encoder : contentEncoders) {
+      Boolean acceptable = accepted.get(encoder.getName().toLowerCase(Locale.ROOT));
+      if (acceptable == null) {
+        acceptable = accepted.get("*");
+      }
+      if (acceptable != null && acceptable) {
+        return encoder;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the {@link Renderer web resource renderer} for the given {@linkplain ServletContext servlet context}.
+   */
+  public static Renderer get(ServletContext servletContext) {
+    return APPLICATION_ATTRIBUTE.context(servletContext).computeIfAbsent(name -> new Renderer(servletContext));
+  }
+
+  private final ResourceWatcher watcher;
+
+  private final Fingerprints fingerprints;
+
+  private final Fingerprints integrities;
+
+  private final Metrics metrics = new Metrics();
+
+  private final UrlCache urlCache;
+
+  private final List<ContentEncoder> contentEncoders = new CopyOnWriteArrayList<>();
+
+  private final Bundles bundles;
+
+  private final Minified minified;
+
+  private final List<StyleOptimizer> styleOptimizers = new CopyOnWriteArrayList<>();
+
+  private final List<ScriptOptimizer> scriptOptimizers = new CopyOnWriteArrayList<>();
+
+  private final boolean preload;
+
+  private final Inliner inliner;
+
+  /**
+   * The maximum size of stylesheets inlined, or {@code 0} when not inlined.
+   */
+  private final int inlineStyles;
+
+  /**
+   * The maximum size of scripts inlined, or {@code 0} when not inlined.
+   */
+  private final int inlineScripts;
+
+  /**
+   * The cache of serialized tags or {@code null} when not enabled by {@link #TAG_CACHE_INIT_PARAM}.
+   */
+  private final TagCache tagCache;
+
+  private Renderer(ServletContext servletContext) {
+    this.watcher = new ResourceWatcher(servletContext);
+    if (Boolean.parseBoolean(servletContext.getInitParameter(PRECOMPRESS_INIT_PARAM))) {
+      contentEncoders.add(GzipEncoder.INSTANCE);
+    }
+    this.bundles = new Bundles(
+        servletContext,
+        new ContentStore(
+            Boolean.parseBoolean(servletContext.getInitParameter(BUNDLE_INIT_PARAM))
+                ? getDirectory(servletContext, BUNDLE_DIRECTORY_INIT_PARAM, "bundles")
+                : null,
+            contentEncoders
+        )
+    );
+    this.minified = new Minified(
+        new ContentStore(
+            Boolean.parseBoolean(servletContext.getInitParameter(MINIFY_INIT_PARAM))
+                ? getDirectory(servletContext, MINIFY_DIRECTORY_INIT_PARAM, "minified")
+                : null,
+            contentEncoders
+        )
+    );
+    this.fingerprints = new Fingerprints(servletContext, bundles, minified, Fingerprints.Kind.FINGERPRINT);
+    this.integrities = new Fingerprints(servletContext, bundles, minified, Fingerprints.Kind.INTEGRITY);
+    this.urlCache = new UrlCache(servletContext, watcher, fingerprints, metrics);
+    // Discard fingerprints before URLs, so re-built URLs do not use the previous fingerprint
+    watcher.addListener(fingerprints::invalidate);
+    watcher.addListener(urlCache::invalidate);
+    watcher.addListener(integrities::invalidate);
+    fingerprints.addListener(urlCache::invalidate);
+    this.inliner = new Inliner(servletContext, watcher, bundles, minified);
+    watcher.addListener(inliner::invalidate);
+    this.preload = Boolean.parseBoolean(servletContext.getInitParameter(PRELOAD_INIT_PARAM));
+    this.inlineStyles = getMaxBytes(servletContext, INLINE_STYLES_INIT_PARAM);
+    this.inlineScripts = getMaxBytes(servletContext, INLINE_SCRIPTS_INIT_PARAM);
+    if (bundles.isEnabled()) {
+      styleOptimizers.add(new StyleBundler(urlCache, bundles));
+      scriptOptimizers.add(new ScriptBundler(urlCache, bundles));
+    }
+    if (minified.isEnabled()) {
+      // Minify after bundling, so each bundle is minified as a whole
+      StyleMinifier styleMinifier = new StyleMinifier(servletContext, urlCache, bundles, minified);
+      ScriptMinifier scriptMinifier = new ScriptMinifier(servletContext, urlCache, bundles, minified);
+      watcher.addListener(styleMinifier::invalidate);
+      watcher.addListener(scriptMinifier::invalidate);
+      styleOptimizers.add(styleMinifier);
+      scriptOptimizers.add(scriptMinifier);
+    }
+    this.tagCache = Boolean.parseBoolean(servletContext.getInitParameter(TAG_CACHE_INIT_PARAM)) ? new TagCache() : null;
+  }
+
+  /**
+   * Gets and creates the directory for bundles or minified content.
+   *
+   * @param  initParam  The name of the context init parameter with the directory
+   * @param  subdirectory  The default directory within {@code ao-web-resources-renderer} in the temporary directory
+   *
+   * @return  The directory or {@code null} when unavailable, which disables the feature
+   */
+  private static Path getDirectory(ServletContext servletContext, String initParam, String subdirectory) {
+    Path directory;
+    String value = servletContext.getInitParameter(initParam);
+    if (value != null && !(value = value.trim()).isEmpty()) {
+      directory = Paths.get(value);
+    } else {
+      Object tempdir = servletContext.getAttribute(ServletContext.TEMPDIR);
+      if (!(tempdir instanceof File)) {
+        logger.warning("No temporary directory and " + initParam + " not set, not enabled");
+        return null;
+      }
+      directory = ((File) tempdir).toPath().resolve("ao-web-resources-renderer").resolve(subdirectory);
+    }
+    try {
+      return Files.createDirectories(directory);
+    } catch (IOException | SecurityException e) {
+      logger.log(Level.WARNING, "Unable to create directory, not enabled: " + directory, e);
+      return null;
+    }
+  }
+
+  /**
+   * Writes a tag, using the {@linkplain #TAG_CACHE_INIT_PARAM tag cache} when enabled.  Tags with a URL changed by
+   * response encoding are not cached, since a session ID added by URL rewriting would otherwise add cached tags for
+   * each session.
+   *
+   * @param  href  The resource URI, or {@code null} for none
+   * @param  url  The URL, with response encoding applied, or {@code null} for none
+   */
+  private void writeTag(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      Content<?, ?> content,
+      String href,
+      String url,
+      List<Object> attributes,
+      TagCache.TagWriter writer
+  ) throws IOException {
+    if (
+        tagCache == null
+            || (url != null && !url.equals(urlCache.getURL(request, response, href)))
+    ) {
+      writer.write();
+    } else {
+      tagCache.write(content, attributes, writer);
+    }
+  }
+
+  /**
+   * The name the metrics MXBean is registered as, or {@code null} when not registered.
+   */
+  private ObjectName metricsName;
+
+  /**
+   * Registers the metrics MXBean with the platform MBean server, named by context path.
+   * Failure to register is logged and otherwise ignored.
+   */
+  private synchronized void registerMetrics(ServletContext servletContext) {
+    if (metricsName == null) {
+      try {
+        ObjectName name = new ObjectName(
+            Renderer.class.getPackage().getName() + ":type=Metrics,context="
+                + ObjectName.quote(servletContext.getContextPath())
+        );
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+        metricsName = name;
+      } catch (JMException | SecurityException e) {
+        logger.log(Level.WARNING, "Unable to register metrics MXBean", e);
+      }
+    }
+  }
+
+  /**
+   * Unregisters the metrics MXBean, if registered.
+   */
+  private synchronized void unregisterMetrics() {
+    if (metricsName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+      } catch (JMException | SecurityException e) {
+        logger.log(Level.WARNING, "Unable to unregister metrics MXBean", e);
+      }
+      metricsName = null;
+    }
+  }
+
+  /**
+   * Gets a maximum number of bytes from a context init parameter.
+   *
+   * @return  The maximum or {@code 0} when not set or invalid
+   */
+  private static int getMaxBytes(ServletContext servletContext, String name) {
+    String value = servletContext.getInitParameter(name);
+    if (value == null || (value = value.trim()).isEmpty()) {
+      return 0;
+    }
+    try {
+      return Math.max(0, Integer.parseInt(value));
+    } catch (NumberFormatException e) {
+      logger.log(Level.WARNING, "Invalid number of bytes for " + name + ": " + value, e);
+      return 0;
+    }
+  }
+
+  /**
+   * Gets the counters and latency histograms of this renderer.
+   * These are also available as an MXBean registered by {@link Initializer}.
+   */
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Rewrites the styles before they are rendered.
+   *
+   * <p>Optimizers are called on every render, after the styles are sorted and filtered for direction, so
+   * should cache any expensive work.  They may be called concurrently.</p>
+   *
+   * @see  #addStyleOptimizer(com.aoapps.web.resources.renderer.Renderer.StyleOptimizer)
+   */
+  @FunctionalInterface
+  public interface StyleOptimizer {
+
+    /**
+     * Optimizes the styles.
+     *
+     * @param  styles  The sorted and filtered styles, as returned by the previous optimizer.  Must not be modified.
+     *
+     * @return  The styles to render, which may be {@code styles} itself when unchanged.  Must not be {@code null}.
+     */
+    List<Style> optimize(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        List<Style> styles
+    ) throws IOException;
+
+    /**
+     * Optimizes the styles using only results already cached by {@link #optimize(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.util.List)},
+     * for {@linkplain Resolution#getPreloadLinks(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse) preloading}
+     * before rendering.  Must not read or write any resource, and should leave unchanged any style without a cached
+     * result.
+     *
+     * <p>Leaves the styles unchanged by default.</p>
+     *
+     * @param  styles  The sorted and filtered styles, as returned by the previous optimizer.  Must not be modified.
+     *
+     * @return  The styles to preload, which may be {@code styles} itself when unchanged.  Must not be {@code null}.
+     */
+    default List<Style> optimizeCached(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        List<Style> styles
+    ) throws IOException {
+      return styles;
+    }
+  }
+
+  /**
+   * Rewrites the scripts before they are rendered.
+   *
+   * <p>Optimizers are called on every render, after the scripts are sorted and filtered for position, so
+   * should cache any expensive work.  They may be called concurrently.</p>
+   *
+   * @see  #addScriptOptimizer(com.aoapps.web.resources.renderer.Renderer.ScriptOptimizer)
+   */
+  @FunctionalInterface
+  public interface ScriptOptimizer {
+
+    /**
+     * Optimizes the scripts.
+     *
+     * @param  position  The position being rendered
+     *
+     * @param  scripts  The sorted and filtered scripts, as returned by the previous optimizer.  Must not be modified.
+     *
+     * @return  The scripts to render, which may be {@code scripts} itself when unchanged.  Must not be {@code null}.
+     */
+    List<Script> optimize(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Script.Position position,
+        List<Script> scripts
+    ) throws IOException;
+
+    /**
+     * Optimizes the scripts using only results already cached by {@link #optimize(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, com.aoapps.web.resources.registry.Script.Position, java.util.List)},
+     * for {@linkplain Resolution#getPreloadLinks(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse) preloading}
+     * before rendering.  Must not read or write any resource, and should leave unchanged any script without a cached
+     * result.
+     *
+     * <p>Leaves the scripts unchanged by default.</p>
+     *
+     * @param  position  The position being preloaded
+     *
+     * @param  scripts  The sorted and filtered scripts, as returned by the previous optimizer.  Must not be modified.
+     *
+     * @return  The scripts to preload, which may be {@code scripts} itself when unchanged.  Must not be {@code null}.
+     */
+    default List<Script> optimizeCached(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Script.Position position,
+        List<Script> scripts
+    ) throws IOException {
+      return scripts;
+    }
+  }
+
+  /**
+   * Adds a style optimizer to the end of the chain.
+   * Any built-in optimizers enabled by context init parameters are first in the chain.
+   *
+   * <p>The chain is copied on modification, so rendering never waits on changes to the chain.</p>
+   */
+  public void addStyleOptimizer(StyleOptimizer optimizer) {
+    styleOptimizers.add(Objects.requireNonNull(optimizer));
+  }
+
+  /**
+   * Removes a style optimizer from the chain.
+   *
+   * @return  {@code true} when removed or {@code false} when not in the chain
+   */
+  public boolean removeStyleOptimizer(StyleOptimizer optimizer) {
+    return styleOptimizers.remove(optimizer);
+  }
+
+  /**
+   * Adds a script optimizer to the end of the chain.
+   * Any built-in optimizers enabled by context init parameters are first in the chain.
+   *
+   * <p>The chain is copied on modification, so rendering never waits on changes to the chain.</p>
+   */
+  public void addScriptOptimizer(ScriptOptimizer optimizer) {
+    scriptOptimizers.add(Objects.requireNonNull(optimizer));
+  }
+
+  /**
+   * Removes a script optimizer from the chain.
+   *
+   * @return  {@code true} when removed or {@code false} when not in the chain
+   */
+  public boolean removeScriptOptimizer(ScriptOptimizer optimizer) {
+    return scriptOptimizers.remove(optimizer);
+  }
+
+  /**
+   * Encodes the content of {@linkplain #BUNDLE_INIT_PARAM bundles} and
+   * {@linkplain #MINIFY_INIT_PARAM minified content}, such as by compression.
+   *
+   * <p>Content is encoded once, when first needed, and stored with the content, so must always encode the same
+   * content the same way.  Encoders may be called concurrently.</p>
+   *
+   * @see  #addContentEncoder(com.aoapps.web.resources.renderer.Renderer.ContentEncoder)
+   */
+  public interface ContentEncoder {
+
+    /**
+     * Gets the content-coding, as used in the {@code Accept-Encoding} and {@code Content-Encoding} headers, such as
+     * {@code "gzip"} or {@code "br"}.
+     */
+    String getName();
+
+    /**
+     * Gets the extension of stored variants, including the leading period, such as {@code ".gz"} or {@code ".br"}.
+     * Must be unique among all encoders.
+     */
+    String getExtension();
+
+    /**
+     * Encodes the content.
+     *
+     * @return  The encoded content.  Must not be modified after being returned.
+     */
+    byte[] encode(byte[] content) throws IOException;
+  }
+
+  private static final Pattern CONTENT_CODING = Pattern.compile("[A-Za-z0-9!#$%&'*+.^_`|~-]+");
+
+  private static final Pattern EXTENSION = Pattern.compile("\\.[A-Za-z0-9]+");
+
+  /**
+   * Adds a content encoder to the end of the list.  The first encoder acceptable to the client is used.
+   * Any built-in encoder enabled by {@link #PRECOMPRESS_INIT_PARAM} is first in the list.
+   *
+   * @throws  IllegalArgumentException  when the name is not a valid content-coding or the extension is not a period
+   *                                    followed by letters and digits
+   */
+  public void addContentEncoder(ContentEncoder encoder) throws IllegalArgumentException {
+    String name = encoder.getName();
+    if (name == null || !CONTENT_CODING.matcher(name).matches()) {
+      throw new IllegalArgumentException("Invalid content-coding: " + name);
+    }
+    String extension = encoder.getExtension();
+    if (extension == null || !EXTENSION.matcher(extension).matches()) {
+      throw new IllegalArgumentException("Invalid extension: " + extension);
+    }
+    contentEncoders.add(encoder);
+  }
+
+  /**
+   * Removes a content encoder from the list.
+   *
+   * @return  {@code true} when removed or {@code false} when not in the list
+   */
+  public boolean removeContentEncoder(ContentEncoder encoder) {
+    return contentEncoders.remove(encoder);
+  }
+
+  /**
+   * Calls all style optimizers, in order.
+   */
+  private List<Style> optimizeStyles(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      List<Style> styles,
+      boolean cachedOnly
+  ) throws IOException {
+    for (StyleOptimizer optimizer : styleOptimizers) {
+      styles = cachedOnly
+          ? optimizer.optimizeCached(request, response, styles)
+          : optimizer.optimize(request, response, styles);
+      if (logger.isLoggable(Level.FINEST)) {
+        logger.finest("optimizer: " + optimizer + ", styles: " + styles);
+      }
+    }
+    return styles;
+  }
+
+  /**
+   * Calls all script optimizers, in order.
+   */
+  private List<Script> optimizeScripts(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      Script.Position position,
+      List<Script> scripts,
+      boolean cachedOnly
+  ) throws IOException {
+    for (ScriptOptimizer optimizer : scriptOptimizers) {
+      scripts = cachedOnly
+          ? optimizer.optimizeCached(request, response, position, scripts)
+          : optimizer.optimize(request, response, position, scripts);
+      if (logger.isLoggable(Level.FINEST)) {
+        logger.finest("optimizer: " + optimizer + ", scripts: " + scripts);
+      }
+    }
+    return scripts;
+  }
+
+  private final ActivationCache activationCache = new ActivationCache();
+
+  private static final String LINK_HEADER = "Link";
+
+  /**
+   * Gets the value of a {@code Link} header that preloads the given resource.
+   *
+   * @param  url  The URL, with response encoding already applied
+   *
+   * @param  as  The type of resource, such as {@code "style"} or {@code "script"}
+   *
+   * @param  crossorigin  The crossorigin attribute or {@code null} for none
+   *
+   * @param  integrity  The integrity metadata or {@code null} for none
+   *
+   * @param  media  The media query or {@code null} for none
+   */
+  private static String getPreloadLink(String url, String as, String crossorigin, String integrity, String media) {
+    StringBuilder link = new StringBuilder(url.length() + 32);
+    link.append('<').append(url).append(">; rel=preload; as=").append(as);
+    if (crossorigin != null) {
+      // Must match the crossorigin of the element for the preload to be used
+      link.append(
+          "use-credentials".equalsIgnoreCase(crossorigin)
+              ? "; crossorigin=use-credentials"
+              : "; crossorigin"
+      );
+    }
+    if (integrity != null) {
+      // Must match the integrity of the element for the preload to be used
+      appendQuoted(link.append("; integrity="), integrity);
+    }
+    if (media != null) {
+      appendQuoted(link.append("; media="), media);
+    }
+    return link.toString();
+  }
+
+  /**
+   * Appends a quoted-string to a header value.
+   */
+  private static void appendQuoted(StringBuilder header, String value) {
+    header.append('"');
+    for (int i = 0, len = value.length(); i < len; i++) {
+      char ch = value.charAt(i);
+      if (ch == '"' || ch == '\\') {
+        header.append('\\');
+      }
+      header.append(ch);
+    }
+    header.append('"');
+  }
+
+  /**
+   * Writes a comment in place of resources.
+   */
+  private void comment(Content<?, ?> content, String comment) throws IOException {
+    switch (comment) {
+      case NO_REGISTRIES:
+        metrics.noRegistries.increment();
+        break;
+      case NO_ACTIVATIONS:
+        metrics.noActivations.increment();
+        break;
+      case NO_STYLES:
+        metrics.noStyles.increment();
+        break;
+      case NO_APPLICABLE_STYLES:
+        metrics.noApplicableStyles.increment();
+        break;
+      case NO_SCRIPTS:
+        metrics.noScripts.increment();
+        break;
+      case NO_APPLICABLE_SCRIPTS:
+        metrics.noApplicableScripts.increment();
+        break;
+      default:
+        throw new AssertionError("Unexpected comment: " + comment);
+    }
+    if (logger.isLoggable(Level.FINER)) {
+      logger.finer(comment);
+    }
+    content.unsafe(comment); // TODO: comment method
+  }
+
+  /**
+   * The maximum number of locales retained by {@link #directions}.
+   */
+  private static final int MAX_DIRECTIONS = 1000;
+
+  /**
+   * The direction of each response locale.
+   */
+  private static final ConcurrentMap<Locale, Style.Direction> directions = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the direction of the given response locale, caching the result.
+   * Plans are cached by direction, so are shared by all locales of the same direction.
+   */
+  private static Style.Direction getDirection(Locale locale) {
+    if (locale == null) {
+      return Style.Direction.getDirection(locale);
+    }
+    Style.Direction direction = directions.get(locale);
+    if (direction == null) {
+      direction = Style.Direction.getDirection(locale);
+      if (direction != null && directions.size() < MAX_DIRECTIONS) {
+        directions.putIfAbsent(locale, direction);
+      }
+    }
+    return direction;
+  }
+
+  /**
+   * The maximum number of render plans retained for each of styles and scripts.
+   */
+  private static final int MAX_PLANS = 1000;
+
+  private final LruCache<RenderPlan.Key, RenderPlan<Style>> stylePlans = new LruCache<>(MAX_PLANS);
+
+  private final LruCache<RenderPlan.Key, RenderPlan<Script>> scriptPlans = new LruCache<>(MAX_PLANS);
+
+  /**
+   * Notified as the snapshots of cached plans are collected.
+   */
+  private final ReferenceQueue<Object> collectedSnapshots = new ReferenceQueue<>();
+
+  /**
+   * Removes the plans of any collected snapshots.  Each union and sort is performed once per combination of
+   * snapshots, but the snapshots are only referenced weakly, so the plans of modified groups are removed without
+   * waiting for eviction.
+   */
+  private void removeCollectedPlans() {
+    Reference<?> ref;
+    while ((ref = collectedSnapshots.poll()) != null) {
+      RenderPlan.Key key = ((RenderPlan.Key.WeakSnapshot) ref).getKey();
+      stylePlans.remove(key);
+      scriptPlans.remove(key);
+    }
+  }
+
+  /**
+   * Gets the plan of styles for the given groups and direction, performing the union, sort, and filter only
+   * when not already cached.  The sorted styles are partitioned by direction in a single pass, caching the plans
+   * of all directions at once.
+   *
+   * @param  allStyles  The styles of all activated groups, in order.  Must not be empty.
+   *
+   * @param  event  Updated with whether the plan was cached, when not {@code null}
+   *
+   * @see  RenderPlan
+   */
+  private RenderPlan<Style> getStylePlan(List<Styles> allStyles, Style.Direction responseDirection, RenderEvent event) {
+    int size = allStyles.size();
+    assert size > 0;
+    Object[] snapshots = new Object[size];
+    for (int i = 0; i < size; i++) {
+      snapshots[i] = allStyles.get(i).getSorted();
+    }
+    RenderPlan.Key key = new RenderPlan.Key(responseDirection, snapshots);
+    removeCollectedPlans();
+    RenderPlan<Style> plan = stylePlans.get(key);
+    if (event != null) {
+      event.planCached = plan != null;
+    }
+    if (plan == null) {
+      metrics.planMisses.increment();
+      long start = System.nanoTime();
+      // Perform a union of all styles
+      Set<Style> sorted;
+      if (size == 1) {
+        @SuppressWarnings("unchecked")
+        Set<Style> direct = (Set<Style>) snapshots[0];
+        sorted = direct;
+        if (logger.isLoggable(Level.FINEST)) {
+          logger.finest("direct styles: " + allStyles.get(0));
+        }
+      } else {
+        Styles styles = Styles.union(allStyles);
+        if (logger.isLoggable(Level.FINEST)) {
+          logger.finest("unioned styles: " + styles);
+        }
+        sorted = styles.getSorted();
+      }
+      if (logger.isLoggable(Level.FINER)) {
+        logger.finer("sorted: " + sorted);
+      }
+      // Partition by direction in a single pass, caching the plans of all directions
+      Map<Style.Direction, List<Style>> partitions = new EnumMap<>(Style.Direction.class);
+      for (Style.Direction direction : Style.Direction.values()) {
+        partitions.put(direction, new ArrayList<>());
+      }
+      for (Style style : sorted) {
+        Style.Direction direction = style.getDirection();
+        if (direction == null) {
+          for (List<Style> partition : partitions.values()) {
+            partition.add(style);
+          }
+        } else {
+          partitions.get(direction).add(style);
+        }
+      }
+      for (Map.Entry<Style.Direction, List<Style>> entry : partitions.entrySet()) {
+        Style.Direction direction = entry.getKey();
+        RenderPlan<Style> partitionPlan = new RenderPlan<>(entry.getValue(), !sorted.isEmpty());
+        if (direction == responseDirection) {
+          plan = partitionPlan;
+          stylePlans.put(key.toWeak(collectedSnapshots), plan);
+        } else {
+          stylePlans.put(new RenderPlan.Key(direction, snapshots).toWeak(collectedSnapshots), partitionPlan);
+        }
+      }
+      if (plan == null) {
+        // Direction not determined
+        assert responseDirection == null;
+        List<Style> filtered = new ArrayList<>(sorted.size());
+        for (Style style : sorted) {
+          if (style.getDirection() == null) {
+            filtered.add(style);
+          }
+        }
+        plan = new RenderPlan<>(filtered, !sorted.isEmpty());
+        stylePlans.put(key.toWeak(collectedSnapshots), plan);
+      }
+      metrics.unionSortTime.record(System.nanoTime() - start);
+    } else {
+      metrics.planHits.increment();
+    }
+    return plan;
+  }
+
+  /**
+   * Gets the plan of scripts for the given groups and position, performing the union, sort, and filter only
+   * when not already cached.  The sorted scripts are partitioned by position in a single pass, caching the plans
+   * of all positions at once.
+   *
+   * @param  allScripts  The scripts of all activated groups, in order.  Must not be empty.
+   *
+   * @param  event  Updated with whether the plan was cached, when not {@code null}
+   *
+   * @see  RenderPlan
+   */
+  private RenderPlan<Script> getScriptPlan(List<Scripts> allScripts, Script.Position position, RenderEvent event) {
+    int size = allScripts.size();
+    assert size > 0;
+    Object[] snapshots = new Object[size];
+    for (int i = 0; i < size; i++) {
+      snapshots[i] = allScripts.get(i).getSorted();
+    }
+    RenderPlan.Key key = new RenderPlan.Key(position, snapshots);
+    removeCollectedPlans();
+    RenderPlan<Script> plan = scriptPlans.get(key);
+    if (event != null) {
+      event.planCached = plan != null;
+    }
+    if (plan == null) {
+      metrics.planMisses.increment();
+      long start = System.nanoTime();
+      // Perform a union of all scripts
+      Set<Script> sorted;
+      if (size == 1) {
+        @SuppressWarnings("unchecked")
+        Set<Script> direct = (Set<Script>) snapshots[0];
+        sorted = direct;
+        if (logger.isLoggable(Level.FINEST)) {
+          logger.finest("direct scripts: " + allScripts.get(0));
+        }
+      } else {
+        Scripts scripts = Scripts.union(allScripts);
+        if (logger.isLoggable(Level.FINEST)) {
+          logger.finest("unioned scripts: " + scripts);
+        }
+        sorted = scripts.getSorted();
+      }
+      if (logger.isLoggable(Level.FINER)) {
+        logger.finer("sorted: " + sorted);
+      }
+      // Partition by position in a single pass, caching the plans of all positions, since the other positions are
+      // typically rendered later in the same request
+      Map<Script.Position, List<Script>> partitions = new EnumMap<>(Script.Position.class);
+      for (Script.Position p : Script.Position.values()) {
+        partitions.put(p, new ArrayList<>());
+      }
+      for (Script script : sorted) {
+        List<Script> partition = partitions.get(script.getPosition());
+        if (partition != null) {
+          partition.add(script);
+        }
+      }
+      for (Map.Entry<Script.Position, List<Script>> entry : partitions.entrySet()) {
+        Script.Position p = entry.getKey();
+        RenderPlan<Script> partitionPlan = new RenderPlan<>(entry.getValue(), !sorted.isEmpty());
+        if (p == position) {
+          plan = partitionPlan;
+          scriptPlans.put(key.toWeak(collectedSnapshots), plan);
+        } else {
+          scriptPlans.put(new RenderPlan.Key(p, snapshots).toWeak(collectedSnapshots), partitionPlan);
+        }
+      }
+      if (plan == null) {
+        // Position not given
+        assert position == null;
+        List<Script> filtered = new ArrayList<>();
+        for (Script script : sorted) {
+          if (script.getPosition() == null) {
+            filtered.add(script);
+          }
+        }
+        plan = new RenderPlan<>(filtered, !sorted.isEmpty());
+        scriptPlans.put(key.toWeak(collectedSnapshots), plan);
+      }
+      metrics.unionSortTime.record(System.nanoTime() - start);
+    } else {
+      metrics.planHits.increment();
+    }
+    return plan;
+  }
+
+  /**
+   * The activated groups of a set of registries, resolved once then rendered any number of times.
+   *
+   * <p>A resolution is intended for use within the request it was resolved for, such as to render the
+   * {@linkplain Script.Position#BODY_END body-end scripts} after {@link #renderHead(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, com.aoapps.html.any.AnyUnion_Metadata_Phrasing, boolean, java.util.Map, java.lang.Iterable)}.
+   * Changes to activations after resolution are not seen, but changes to the styles and scripts of the activated
+   * groups are.</p>
+   *
+   * <p>Resolutions are also retained for the duration of the request, and reused by later calls to
+   * {@link #resolve(javax.servlet.http.HttpServletRequest, boolean, java.util.Map, java.lang.Iterable)} while still
+   * current.</p>
    */
-  @WebListener("Initializes the Renderer during application start-up.")
-  public static class Initializer implements ServletContextListener {
+  public final class Resolution {
 
-    @Override
-    public void contextInitialized(ServletContextEvent event) {
-      get(event.getServletContext());
+    /**
+     * The comment written in place of any resources, or {@code null} when there are activated groups.
+     */
+    private final String comment;
+    private final Set<Group.Name> groups;
+    private final Registry[] registries;
+    private final List<Styles> allStyles;
+    private final List<Scripts> allScripts;
+
+    /**
+     * The activated groups not found in their registries, as parallel arrays.
+     */
+    private final Registry[] missingRegistries;
+    private final Group.Name[] missingNames;
+
+    private Resolution(String comment) {
+      this.comment = comment;
+      this.groups = null;
+      this.registries = null;
+      this.allStyles = Collections.emptyList();
+      this.allScripts = Collections.emptyList();
+      this.missingRegistries = null;
+      this.missingNames = null;
+    }
+
+    private Resolution(
+        Set<Group.Name> groups,
+        Registry[] registries,
+        List<Styles> allStyles,
+        List<Scripts> allScripts,
+        Registry[] missingRegistries,
+        Group.Name[] missingNames
+    ) {
+      this.comment = null;
+      this.groups = groups;
+      this.registries = registries;
+      this.allStyles = allStyles;
+      this.allScripts = allScripts;
+      this.missingRegistries = missingRegistries;
+      this.missingNames = missingNames;
+    }
+
+    /**
+     * Is this resolution still current for the given activated groups and registries?
+     * The activated groups are compared by identity first, since they are usually
+     * {@linkplain ActivationCache interned}, then by equality.
+     * Groups that were missing from their registry must still be missing.
+     */
+    private boolean isCurrent(Renderer renderer, Set<Group.Name> groups, Registry[] registries) {
+      if (
+          renderer != Renderer.this
+              || (groups != this.groups && !groups.equals(this.groups))
+              || !isSameRegistries(registries)
+      ) {
+        return false;
+      }
+      for (int i = 0; i < missingNames.length; i++) {
+        if (missingRegistries[i].getGroup(missingNames[i], false) != null) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Compares the registries by identity.
+     */
+    private boolean isSameRegistries(Registry[] registries) {
+      int len = registries.length;
+      if (this.registries == null || len != this.registries.length) {
+        return false;
+      }
+      for (int i = 0; i < len; i++) {
+        if (registries[i] != this.registries[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Renders the set of link tags for the styles of all activated groups.
+     */
+    public void renderStyles(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        AnyUnion_Metadata_Phrasing<?, ?> content
+    ) throws IOException {
+      long start = System.nanoTime();
+      metrics.styleRenders.increment();
+      RenderEvent event = new RenderEvent();
+      event.begin();
+      String outcome = null;
+      Style.Direction direction = null;
+      int rendered = 0;
+      if (comment != null) {
+        outcome = comment;
+      } else if (allStyles.isEmpty()) {
+        outcome = NO_STYLES;
+      } else {
+        direction = getDirection(response.getLocale());
+        RenderPlan<Style> plan = getStylePlan(allStyles, direction, event);
+        List<Style> planned = optimizeStyles(request, response, plan.getResources(), false);
+        long emitStart = System.nanoTime();
+        for (Style style : planned) {
+          String href = style.getUri();
+          if (
+              inlineStyles > 0
+                  && href != null
+                  && !style.isDisabled()
+                  && content instanceof AnyMetadataContent
+          ) {
+            if (
+                inliner.writeStyle(
+                    (AnyMetadataContent<?, ?>) content,
+                    request.getContextPath(),
+                    href,
+                    inlineStyles,
+                    style.getMedia()
+                )
+            ) {
+              continue;
+            }
+          }
+          String url = (href == null) ? null : urlCache.buildURL(request, response, href);
+          String integrity = (url == null)
+              ? null
+              : integrities.get(href, urlCache.getVersion(request, response, href));
+          if (preload && url != null && !style.isDisabled() && !response.isCommitted()) {
+            response.addHeader(
+                LINK_HEADER,
+                getPreloadLink(url, "style", style.getCrossorigin(), integrity, style.getMedia())
+            );
+          }
+          writeTag(
+              request,
+              response,
+              content,
+              href,
+              url,
+              Arrays.asList(
+                  AnyLINK.Rel.STYLESHEET,
+                  url,
+                  integrity,
+                  style.getMedia(),
+                  style.getCrossorigin(),
+                  style.isDisabled()
+              ),
+              () -> content.link(AnyLINK.Rel.STYLESHEET)
+                  .href(url)
+                  .integrity(integrity)
+                  .media(style.getMedia())
+                  .crossorigin(style.getCrossorigin())
+                  .disabled(style.isDisabled())
+                  .__()
+          );
+        }
+        metrics.emitTime.record(System.nanoTime() - emitStart);
+        rendered = planned.size();
+        metrics.stylesRendered.add(rendered);
+        if (rendered == 0) {
+          outcome = plan.hasResources() ? NO_APPLICABLE_STYLES : NO_STYLES;
+        }
+      }
+      if (outcome != null) {
+        comment(content, outcome);
+      }
+      metrics.renderTime.record(System.nanoTime() - start);
+      if (event.shouldCommit()) {
+        event.type = "styles";
+        event.direction = (direction == null) ? null : direction.name();
+        event.registries = (registries == null) ? 0 : registries.length;
+        event.groups = (groups == null) ? 0 : groups.size();
+        event.resources = rendered;
+        event.outcome = outcome;
+        event.commit();
+      }
+    }
+
+    /**
+     * Renders the set of script tags for the scripts of all activated groups in the given position.
+     */
+    public void renderScripts(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        AnyScriptSupportingContent<?, ?> content,
+        Script.Position position
+    ) throws IOException {
+      long start = System.nanoTime();
+      metrics.scriptRenders.increment();
+      RenderEvent event = new RenderEvent();
+      event.begin();
+      String outcome = null;
+      int rendered = 0;
+      if (comment != null) {
+        outcome = comment;
+      } else if (allScripts.isEmpty()) {
+        outcome = NO_SCRIPTS;
+      } else {
+        RenderPlan<Script> plan = getScriptPlan(allScripts, position, event);
+        List<Script> planned = optimizeScripts(request, response, position, plan.getResources(), false);
+        long emitStart = System.nanoTime();
+        for (Script script : planned) {
+          String src = script.getUri();
+          if (inlineScripts > 0 && src != null && !script.isAsync() && !script.isDefer()) {
+            if (inliner.writeScript(content, request.getContextPath(), src, inlineScripts)) {
+              continue;
+            }
+          }
+          String url = (src == null) ? null : urlCache.buildURL(request, response, src);
+          String integrity = (url == null)
+              ? null
+              : integrities.get(src, urlCache.getVersion(request, response, src));
+          if (preload && url != null && !response.isCommitted()) {
+            response.addHeader(LINK_HEADER, getPreloadLink(url, "script", script.getCrossorigin(), integrity, null));
+          }
+          writeTag(
+              request,
+              response,
+              content,
+              src,
+              url,
+              Arrays.asList(
+                  AnySCRIPT.Type.APPLICATION_JAVASCRIPT,
+                  url,
+                  integrity,
+                  script.isAsync(),
+                  script.isDefer(),
+                  script.getCrossorigin()
+              ),
+              () -> content.script(AnySCRIPT.Type.APPLICATION_JAVASCRIPT)
+                  .src(url)
+                  .integrity(integrity)
+                  .async(script.isAsync())
+                  .defer(script.isDefer())
+                  .crossorigin(script.getCrossorigin())
+                  .__()
+          );
+        }
+        metrics.emitTime.record(System.nanoTime() - emitStart);
+        rendered = planned.size();
+        metrics.scriptsRendered.add(rendered);
+        if (rendered == 0) {
+          outcome = plan.hasResources() ? NO_APPLICABLE_SCRIPTS : NO_SCRIPTS;
+        }
+      }
+      if (outcome != null) {
+        comment(content, outcome);
+      }
+      metrics.renderTime.record(System.nanoTime() - start);
+      if (event.shouldCommit()) {
+        event.type = "scripts";
+        event.position = (position == null) ? null : position.name();
+        event.registries = (registries == null) ? 0 : registries.length;
+        event.groups = (groups == null) ? 0 : groups.size();
+        event.resources = rendered;
+        event.outcome = outcome;
+        event.commit();
+      }
+    }
+
+    /**
+     * Gets the {@code Link} header values that preload the styles and scripts of all positions that would be
+     * rendered, in the order: styles, {@linkplain Script.Position#HEAD_START head-start scripts},
+     * {@linkplain Script.Position#HEAD_END head-end scripts}, then
+     * {@linkplain Script.Position#BODY_END body-end scripts}.  Disabled styles and styles and scripts already known to
+     * be inlined are not included.
+     *
+     * <p>Nothing is written to the response, so this may be called at the start of a request, before any page logic,
+     * such as by a filter sending {@code 103 Early Hints} or preload headers on an early flushed response.  The plans
+     * are cached, but optimizers only apply results already cached by previous renders, such as existing bundles, so
+     * no resource is read, bundled, or minified.  Until a page has been rendered, its unoptimized URLs are preloaded.
+     * URLs are built and cached as when rendering, which may queue background fingerprinting or digests when
+     * enabled.  The resolution is retained for the rest of the request, as with any call to
+     * {@link #resolve(javax.servlet.http.HttpServletRequest, boolean, java.util.Map, java.lang.Iterable)}.</p>
+     *
+     * @return  The link header values (which may be empty)
+     *
+     * @see  #PRELOAD_INIT_PARAM
+     */
+    public List<String> getPreloadLinks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+      List<String> links = new ArrayList<>();
+      if (!allStyles.isEmpty()) {
+        RenderPlan<Style> plan = getStylePlan(allStyles, getDirection(response.getLocale()), null);
+        for (Style style : optimizeStyles(request, response, plan.getResources(), true)) {
+          String href = style.getUri();
+          if (
+              href != null
+                  && !style.isDisabled()
+                  && (inlineStyles == 0 || !inliner.isStyleInlined(request.getContextPath(), href))
+          ) {
+            String url = urlCache.buildURL(request, response, href);
+            if (url != null) {
+              String integrity = integrities.get(href, urlCache.getVersion(request, response, href));
+              links.add(getPreloadLink(url, "style", style.getCrossorigin(), integrity, style.getMedia()));
+            }
+          }
+        }
+      }
+      if (!allScripts.isEmpty()) {
+        for (Script.Position position : Script.Position.values()) {
+          RenderPlan<Script> plan = getScriptPlan(allScripts, position, null);
+          for (Script script : optimizeScripts(request, response, position, plan.getResources(), true)) {
+            String src = script.getUri();
+            if (
+                src != null
+                    && (
+                      inlineScripts == 0
+                          || script.isAsync()
+                          || script.isDefer()
+                          || !inliner.isScriptInlined(request.getContextPath(), src)
+                    )
+            ) {
+              String url = urlCache.buildURL(request, response, src);
+              if (url != null) {
+                String integrity = integrities.get(src, urlCache.getVersion(request, response, src));
+                links.add(getPreloadLink(url, "script", script.getCrossorigin(), integrity, null));
+              }
+            }
+          }
+        }
+      }
+      return links;
     }
 
     @Override
-    public void contextDestroyed(ServletContextEvent event) {
-      // Do nothing
+    public String toString() {
+      return (comment != null) ? comment : ("Resolution(" + allStyles + ", " + allScripts + ')');
     }
   }
 
+  private final Resolution noRegistries = new Resolution(NO_REGISTRIES);
+
+  private final Resolution noActivations = new Resolution(NO_ACTIVATIONS);
+
   /**
-   * Gets the {@link Renderer web resource renderer} for the given {@linkplain ServletContext servlet context}.
+   * The resolutions of the current request, reused by later calls within the same request, including across
+   * {@linkplain javax.servlet.RequestDispatcher#include(javax.servlet.ServletRequest, javax.servlet.ServletResponse) includes}.
+   * A request is not handled by more than one thread at a time, so the list is not synchronized.
    */
-  public static Renderer get(ServletContext servletContext) {
-    return APPLICATION_ATTRIBUTE.context(servletContext).computeIfAbsent(name -> new Renderer(servletContext));
-  }
+  private static final ScopeEE.Request.Attribute<List<Resolution>> REQUEST_ATTRIBUTE =
+      ScopeEE.REQUEST.attribute(Renderer.class.getName() + ".resolutions");
 
-  private final ServletContext servletContext;
+  /**
+   * The maximum number of resolutions retained per request.
+   */
+  private static final int MAX_REQUEST_RESOLUTIONS = 16;
 
-  private Renderer(ServletContext servletContext) {
-    this.servletContext = servletContext;
+  /**
+   * Resolves current activations then finds the styles and scripts of all activated groups in all registries,
+   * in a single pass.
+   *
+   * <p>Resolution writes nothing.  Any comment for no registries or no activations is written when rendered.</p>
+   *
+   * <p>The resolution is retained for the rest of the request.  A later call with the same registries that
+   * resolves to the same activated groups reuses it, provided no activated group has since been added to a registry
+   * it was missing from.</p>
+   *
+   * @param  registeredActivations  Should the registered activations be applied?
+   *
+   * @param  activations  Additional activations applied after those configured in the registries.
+   *
+   * @param  registries  Iterated up to twice: first to determine group activations,
+   *                     then to find the styles and scripts of all activated groups.
+   *
+   * @see  ActivationCache
+   */
+  // TODO: Support included/inherited groups
+  public Resolution resolve(
+      HttpServletRequest request,
+      boolean registeredActivations,
+      Map<Group.Name, Boolean> activations,
+      Iterable<Registry> registries
+  ) {
+    long start = System.nanoTime();
+    ResolveEvent event = new ResolveEvent();
+    event.begin();
+    Resolution resolution = doResolve(request, registeredActivations, activations, registries, event);
+    metrics.resolveTime.record(System.nanoTime() - start);
+    if (event.shouldCommit()) {
+      event.registries = (resolution.registries == null) ? 0 : resolution.registries.length;
+      event.groups = (resolution.groups == null) ? 0 : resolution.groups.size();
+      event.outcome = resolution.comment;
+      event.commit();
+    }
+    return resolution;
   }
 
-  // TODO: Add/remove (or set/clear if only one) optimizer hooks: UnaryOperator<Set<...>>?
-
   /**
-   * Resolve current activations.
+   * Implementation of {@link #resolve(javax.servlet.http.HttpServletRequest, boolean, java.util.Map, java.lang.Iterable)}.
    *
-   * @return  The set of groups (which may be empty).
-   *          When there are no groups, a comment is written to {@code content}.
+   * @param  event  Updated with whether the resolution was reused
    */
-  private static Set<Group.Name> resolveActivations(
-      Content<?, ?> content,
+  private Resolution doResolve(
+      HttpServletRequest request,
       boolean registeredActivations,
       Map<Group.Name, Boolean> activations,
-      Iterable<Registry> registries
-  ) throws IOException {
-    Set<Group.Name> groups = new HashSet<>();
+      Iterable<Registry> registries,
+      ResolveEvent event
+  ) {
     if (logger.isLoggable(Level.FINER)) {
       logger.finer("registries = " + registries);
     }
     if (registries == null) {
-      if (logger.isLoggable(Level.FINER)) {
-        logger.finer(NO_REGISTRIES);
+      return noRegistries;
+    }
+    List<Map<Group.Name, Boolean>> registryActivations;
+    if (registeredActivations) {
+      registryActivations = new ArrayList<>();
+      for (Registry registry : registries) {
+        if (registry != null) {
+          registryActivations.add(registry.getActivations());
+        }
+      }
+      if (registryActivations.isEmpty()) {
+        return noRegistries;
       }
-      content.unsafe(NO_REGISTRIES); // TODO: comment method
     } else {
-      if (registeredActivations) {
-        boolean hasRegistry = false;
-        for (Registry registry : registries) {
-          if (registry != null) {
-            hasRegistry = true;
-            for (Map.Entry<Group.Name, Boolean> entry : registry.getActivations().entrySet()) {
-              Group.Name name = entry.getKey();
-              assert entry.getValue() != null : "null activations are removed, not set as an entry";
-              boolean activated = entry.getValue();
-              if (activated) {
-                groups.add(name);
-              } else {
-                groups.remove(name);
-              }
-            }
-          }
-        }
-        if (!hasRegistry) {
-          if (logger.isLoggable(Level.FINER)) {
-            logger.finer(NO_REGISTRIES);
-          }
-          content.unsafe(NO_REGISTRIES); // TODO: comment method
-          assert groups.isEmpty();
-          return groups;
-        }
+      registryActivations = Collections.emptyList();
+    }
+    Set<Group.Name> groups = activationCache.resolve(registryActivations, activations);
+    if (logger.isLoggable(Level.FINER)) {
+      logger.finer("groups = " + groups);
+    }
+    if (groups.isEmpty()) {
+      return noActivations;
+    }
+    List<Registry> registryList = new ArrayList<>();
+    for (Registry registry : registries) {
+      if (registry != null) {
+        registryList.add(registry);
       }
-      if (activations != null) {
-        for (Map.Entry<Group.Name, Boolean> entry : activations.entrySet()) {
-          Group.Name name = entry.getKey();
-          Boolean activated = entry.getValue();
-          if (activated != null) {
-            if (activated) {
-              groups.add(name);
-            } else {
-              groups.remove(name);
-            }
-          }
+    }
+    if (registryList.isEmpty()) {
+      return noRegistries;
+    }
+    Registry[] registryArray = registryList.toArray(new Registry[registryList.size()]);
+    // Reuse a resolution from earlier in the request
+    List<Resolution> resolutions = REQUEST_ATTRIBUTE.context(request).computeIfAbsent(name -> new ArrayList<>());
+    int staleIndex = -1;
+    for (int i = 0, size = resolutions.size(); i < size; i++) {
+      Resolution resolution = resolutions.get(i);
+      if (resolution.isCurrent(this, groups, registryArray)) {
+        if (logger.isLoggable(Level.FINER)) {
+          logger.finer("reusing resolution: " + resolution);
         }
+        metrics.resolutionHits.increment();
+        event.reused = true;
+        return resolution;
       }
-      if (logger.isLoggable(Level.FINER)) {
-        logger.finer("groups = " + groups);
+      if (staleIndex == -1 && resolution.isSameRegistries(registryArray)) {
+        staleIndex = i;
       }
-      if (groups.isEmpty()) {
-        if (logger.isLoggable(Level.FINER)) {
-          logger.finer(NO_ACTIVATIONS);
+    }
+    metrics.resolutionMisses.increment();
+    // Find all the styles and scripts for all the activated groups in all registries
+    List<Styles> allStyles = new ArrayList<>();
+    List<Scripts> allScripts = new ArrayList<>();
+    List<Registry> missingRegistries = new ArrayList<>();
+    List<Group.Name> missingNames = new ArrayList<>();
+    for (Registry registry : registryArray) {
+      for (Group.Name name : groups) {
+        Group group = registry.getGroup(name, false);
+        if (logger.isLoggable(Level.FINEST)) {
+          logger.finest("name: " + name + ", group: " + group);
+        }
+        if (group != null) {
+          allStyles.add(group.styles);
+          allScripts.add(group.scripts);
+        } else {
+          missingRegistries.add(registry);
+          missingNames.add(name);
         }
-        content.unsafe(NO_ACTIVATIONS); // TODO: comment method
       }
     }
-    return groups;
+    Resolution resolution = new Resolution(
+        groups,
+        registryArray,
+        allStyles,
+        allScripts,
+        missingRegistries.toArray(new Registry[missingRegistries.size()]),
+        missingNames.toArray(new Group.Name[missingNames.size()])
+    );
+    // Replace any stale resolution of the same registries, otherwise retain up to the maximum
+    if (staleIndex != -1) {
+      resolutions.set(staleIndex, resolution);
+    } else if (resolutions.size() < MAX_REQUEST_RESOLUTIONS) {
+      resolutions.add(resolution);
+    }
+    return resolution;
+  }
+
+  /**
+   * Resolves current activations then finds the styles and scripts of all activated groups in all registries,
+   * in a single pass.
+   *
+   * @param  registeredActivations  Should the registered activations be applied?
+   *
+   * @param  activations  Additional activations applied after those configured in the registries.
+   *
+   * @param  registries  Iterated up to twice: first to determine group activations,
+   *                     then to find the styles and scripts of all activated groups.
+   *
+   * @see  #resolve(javax.servlet.http.HttpServletRequest, boolean, java.util.Map, java.lang.Iterable)
+   */
+  public Resolution resolve(
+      HttpServletRequest request,
+      boolean registeredActivations,
+      Map<Group.Name, Boolean> activations,
+      Registry ... registries
+  ) {
+    return resolve(
+        request,
+        registeredActivations,
+        activations,
+        (registries == null) ? null : Arrays.asList(registries)
+    );
+  }
+
+  /**
+   * Resolves the activated groups once, then renders the {@linkplain Script.Position#HEAD_START head-start scripts},
+   * styles, and {@linkplain Script.Position#HEAD_END head-end scripts}, in that order.
+   *
+   * @param  registeredActivations  Should the registered activations be applied?
+   *
+   * @param  activations  Additional activations applied after those configured in the registries.
+   *
+   * @param  registries  Iterated up to twice: first to determine group activations,
+   *                     then to find the styles and scripts of all activated groups.
+   *
+   * @return  The resolution, which may be used to render the {@linkplain Script.Position#BODY_END body-end scripts}
+   *          later in the same request without resolving again.
+   */
+  public Resolution renderHead(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      AnyUnion_Metadata_Phrasing<?, ?> content,
+      boolean registeredActivations,
+      Map<Group.Name, Boolean> activations,
+      Iterable<Registry> registries
+  ) throws IOException {
+    Resolution resolution = resolve(request, registeredActivations, activations, registries);
+    resolution.renderScripts(request, response, content, Script.Position.HEAD_START);
+    resolution.renderStyles(request, response, content);
+    resolution.renderScripts(request, response, content, Script.Position.HEAD_END);
+    return resolution;
+  }
+
+  /**
+   * Resolves the activated groups once, then renders the {@linkplain Script.Position#HEAD_START head-start scripts},
+   * styles, and {@linkplain Script.Position#HEAD_END head-end scripts}, in that order.
+   *
+   * @param  registeredActivations  Should the registered activations be applied?
+   *
+   * @param  activations  Additional activations applied after those configured in the registries.
+   *
+   * @param  registries  Iterated up to twice: first to determine group activations,
+   *                     then to find the styles and scripts of all activated groups.
+   *
+   * @return  The resolution, which may be used to render the {@linkplain Script.Position#BODY_END body-end scripts}
+   *          later in the same request without resolving again.
+   *
+   * @see  #renderHead(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, com.aoapps.html.any.AnyUnion_Metadata_Phrasing, boolean, java.util.Map, java.lang.Iterable)
+   */
+  public Resolution renderHead(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      AnyUnion_Metadata_Phrasing<?, ?> content,
+      boolean registeredActivations,
+      Map<Group.Name, Boolean> activations,
+      Registry ... registries
+  ) throws IOException {
+    return renderHead(
+        request,
+        response,
+        content,
+        registeredActivations,
+        activations,
+        (registries == null) ? null : Arrays.asList(registries)
+    );
   }
 
   /**
@@ -203,7 +1829,6 @@ public class Renderer {
    * @param  registries  Iterated up to twice: first to determine group activations,
    *                     then to union the styles from all activated groups.
    */
-  // TODO: Support included/inherited groups
   public void renderStyles(
       HttpServletRequest request,
       HttpServletResponse response,
@@ -212,115 +1837,7 @@ public class Renderer {
       Map<Group.Name, Boolean> activations,
       Iterable<Registry> registries
   ) throws IOException {
-    // Resolve current activations
-    Set<Group.Name> groups = resolveActivations(content, registeredActivations, activations, registries);
-    if (!groups.isEmpty()) {
-      // Find all the styles for all the activated groups in all registries
-      List<Styles> allStyles = new ArrayList<>();
-      boolean hasRegistry = false;
-      for (Registry registry : registries) {
-        if (registry != null) {
-          hasRegistry = true;
-          for (Group.Name name : groups) {
-            Group group = registry.getGroup(name, false);
-            if (logger.isLoggable(Level.FINEST)) {
-              logger.finest("name: " + name + ", group: " + group);
-            }
-            if (group != null) {
-              allStyles.add(group.styles);
-            }
-          }
-        }
-      }
-      if (!hasRegistry) {
-        if (logger.isLoggable(Level.FINER)) {
-          logger.finer(NO_REGISTRIES);
-        }
-        content.unsafe(NO_REGISTRIES); // TODO: comment method
-        return;
-      }
-      // Perform a union of all styles
-      int size = allStyles.size();
-      if (size == 0) {
-        if (logger.isLoggable(Level.FINER)) {
-          logger.finer(NO_STYLES);
-        }
-        content.unsafe(NO_STYLES); // TODO: comment method
-      } else {
-        Styles styles;
-        if (size == 1) {
-          styles = allStyles.get(0);
-          if (logger.isLoggable(Level.FINEST)) {
-            logger.finest("direct styles: " + styles);
-          }
-        } else {
-          styles = Styles.union(allStyles);
-          if (logger.isLoggable(Level.FINEST)) {
-            logger.finest("unioned styles: " + styles);
-          }
-        }
-        Set<Style> sorted = styles.getSorted();
-        if (logger.isLoggable(Level.FINER)) {
-          logger.finer("sorted: " + styles);
-        }
-        // TODO: Call optimizer hook
-        boolean hasStyle = false;
-        boolean didOne = false;
-        Style.Direction responseDirection = null;
-        for (Style style : sorted) {
-          hasStyle = true;
-          // Filter for direction
-          boolean directionMatches;
-          Style.Direction direction = style.getDirection();
-          if (direction != null) {
-            if (responseDirection == null) {
-              responseDirection = Style.Direction.getDirection(response.getLocale());
-            }
-            directionMatches = direction == responseDirection;
-          } else {
-            directionMatches = true;
-          }
-          if (directionMatches) {
-            didOne = true;
-            // TODO: Support inline styles
-            String href = style.getUri();
-            content.link(AnyLINK.Rel.STYLESHEET)
-                .href(href == null ? null :
-                    LastModifiedUtil.buildURL(
-                        servletContext,
-                        request,
-                        response,
-                        "/", // TODO: contextPath here to handle ../ breaking out of application?
-                        // TODO: All buildUrl add contextPath to servlet path to support ../ outside of application generally?
-                        // TODO: / is prefixed with contextPath, so due to lack of normalization: /../ would effectively be relative to the current contextPath
-                        href,
-                        EmptyURIParameters.getInstance(),
-                        AddLastModified.AUTO,
-                        false,
-                        false
-                    )
-                )
-                .media(style.getMedia())
-                .crossorigin(style.getCrossorigin())
-                .disabled(style.isDisabled())
-                .__();
-          }
-        }
-        if (!didOne) {
-          if (!hasStyle) {
-            if (logger.isLoggable(Level.FINER)) {
-              logger.finer(NO_STYLES);
-            }
-            content.unsafe(NO_STYLES); // TODO: comment method
-          } else {
-            if (logger.isLoggable(Level.FINER)) {
-              logger.finer(NO_APPLICABLE_STYLES);
-            }
-            content.unsafe(NO_APPLICABLE_STYLES); // TODO: comment method
-          }
-        }
-      }
-    }
+    resolve(request, registeredActivations, activations, registries).renderStyles(request, response, content);
   }
 
   /**
@@ -365,7 +1882,6 @@ public class Renderer {
    * @param  registries  Iterated up to twice: first to determine group activations,
    *                     then to union the scripts from all activated groups.
    */
-  // TODO: Support included/inherited groups
   public void renderScripts(
       HttpServletRequest request,
       HttpServletResponse response,
@@ -375,105 +1891,8 @@ public class Renderer {
       Script.Position position,
       Iterable<Registry> registries
   ) throws IOException {
-    // Resolve current activations
-    Set<Group.Name> groups = resolveActivations(content, registeredActivations, activations, registries);
-    if (!groups.isEmpty()) {
-      // Find all the scripts for all the activated groups in all registries
-      List<Scripts> allScripts = new ArrayList<>();
-      boolean hasRegistry = false;
-      for (Registry registry : registries) {
-        if (registry != null) {
-          hasRegistry = true;
-          for (Group.Name name : groups) {
-            Group group = registry.getGroup(name, false);
-            if (logger.isLoggable(Level.FINEST)) {
-              logger.finest("name: " + name + ", group: " + group);
-            }
-            if (group != null) {
-              allScripts.add(group.scripts);
-            }
-          }
-        }
-      }
-      if (!hasRegistry) {
-        if (logger.isLoggable(Level.FINER)) {
-          logger.finer(NO_REGISTRIES);
-        }
-        content.unsafe(NO_REGISTRIES); // TODO: comment method
-        return;
-      }
-      // Perform a union of all scripts while filtering by position
-      int size = allScripts.size();
-      if (size == 0) {
-        if (logger.isLoggable(Level.FINER)) {
-          logger.finer(NO_SCRIPTS);
-        }
-        content.unsafe(NO_SCRIPTS); // TODO: comment method
-      } else {
-        // TODO: How early can we filter for position (and same thing for direction of styles)?
-        Scripts scripts;
-        if (size == 1) {
-          scripts = allScripts.get(0);
-          if (logger.isLoggable(Level.FINEST)) {
-            logger.finest("direct scripts: " + scripts);
-          }
-        } else {
-          scripts = Scripts.union(allScripts);
-          if (logger.isLoggable(Level.FINEST)) {
-            logger.finest("unioned scripts: " + scripts);
-          }
-        }
-        Set<Script> sorted = scripts.getSorted();
-        if (logger.isLoggable(Level.FINER)) {
-          logger.finer("sorted: " + scripts);
-        }
-        // TODO: Call optimizer hook
-        boolean hasScript = false;
-        boolean didOne = false;
-        for (Script script : sorted) {
-          hasScript = true;
-          // Filter for position
-          if (script.getPosition() == position) {
-            didOne = true;
-            // TODO: Support inline scripts
-            String src = script.getUri();
-            content.script(AnySCRIPT.Type.APPLICATION_JAVASCRIPT)
-                .src(src == null ? null :
-                    LastModifiedUtil.buildURL(
-                        servletContext,
-                        request,
-                        response,
-                        "/", // TODO: contextPath here to handle ../ breaking out of application?
-                        // TODO: All buildUrl add contextPath to servlet path to support ../ outside of application generally?
-                        // TODO: / is prefixed with contextPath, so due to lack of normalization: /../ would effectively be relative to the current contextPath
-                        src,
-                        EmptyURIParameters.getInstance(),
-                        AddLastModified.AUTO,
-                        false,
-                        false
-                    )
-                )
-                .async(script.isAsync())
-                .defer(script.isDefer())
-                .crossorigin(script.getCrossorigin())
-                .__();
-          }
-        }
-        if (!didOne) {
-          if (!hasScript) {
-            if (logger.isLoggable(Level.FINER)) {
-              logger.finer(NO_SCRIPTS);
-            }
-            content.unsafe(NO_SCRIPTS); // TODO: comment method
-          } else {
-            if (logger.isLoggable(Level.FINER)) {
-              logger.finer(NO_APPLICABLE_SCRIPTS);
-            }
-            content.unsafe(NO_APPLICABLE_SCRIPTS); // TODO: comment method
-          }
-        }
-      }
-    }
+    resolve(request, registeredActivations, activations, registries)
+        .renderScripts(request, response, content, position);
   }
 
   /**
@@ -0,0 +1,57 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for {@link Renderer#resolve(javax.servlet.http.HttpServletRequest, boolean, java.util.Map, java.lang.Iterable)}.
+ * Disabled events cost little more than their allocation, which is typically eliminated by escape analysis.
+ */
+@Name("com.aoapps.web.resources.renderer.Resolve")
+@Label("Resolve")
+@Category({"AO Industries", "Web Resources"})
+@Description("Resolves activations and finds the styles and scripts of all activated groups")
+final class ResolveEvent extends Event {
+
+  @Label("Registries")
+  @Description("The number of non-null registries")
+  int registries;
+
+  @Label("Groups")
+  @Description("The number of activated groups")
+  int groups;
+
+  @Label("Reused")
+  @Description("Was a resolution from earlier in the same request reused?")
+  boolean reused;
+
+  @Label("Outcome")
+  @Description("The comment written in place of any resources, if any")
+  String outcome;
+}
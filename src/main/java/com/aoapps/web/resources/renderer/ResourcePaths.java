@@ -0,0 +1,67 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+/**
+ * Utilities for resolving resource URIs to paths within the application.
+ */
+final class ResourcePaths {
+
+  /** Make no instances. */
+  private ResourcePaths() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Gets the context-relative path of the given href, without any query or fragment.
+   *
+   * @return  The path or {@code null} when the href is not within this application
+   */
+  static String getResourcePath(String href) {
+    int end = href.length();
+    int query = href.indexOf('?');
+    if (query != -1) {
+      end = query;
+    }
+    int fragment = href.indexOf('#');
+    if (fragment != -1 && fragment < end) {
+      end = fragment;
+    }
+    String path = href.substring(0, end);
+    if (path.startsWith("//")) {
+      // Network-path reference
+      return null;
+    }
+    int colon = path.indexOf(':');
+    if (colon != -1) {
+      int slash = path.indexOf('/');
+      if (slash == -1 || colon < slash) {
+        // Has scheme
+        return null;
+      }
+    }
+    // Relative to "/", consistent with URL building
+    return path.startsWith("/") ? path : ('/' + path);
+  }
+}
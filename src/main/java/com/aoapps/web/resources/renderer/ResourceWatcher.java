@@ -0,0 +1,288 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContext;
+
+/**
+ * Watches the files behind resources in a background thread, notifying listeners when they change.
+ *
+ * <p>Resources are learned as they are used, through {@link #watch(java.lang.String)}.  Each resource with a
+ * {@linkplain ServletContext#getRealPath(java.lang.String) real path} has its directory registered with a
+ * {@link WatchService}.  When a watch service is not available, the last-modified times of all known files are
+ * polled instead.</p>
+ *
+ * <p>Resources without a real path, such as those within JAR files, and resources outside the application can only
+ * change on redeploy, which creates a new {@link Renderer}.</p>
+ */
+final class ResourceWatcher {
+
+  private static final Logger logger = Logger.getLogger(ResourceWatcher.class.getName());
+
+  private static final String THREAD_NAME = "ao-web-resources-renderer resource watcher";
+
+  /**
+   * The number of seconds between polls when a watch service is not available.
+   */
+  private static final long POLL_INTERVAL_SECONDS = 5;
+
+  private final ServletContext servletContext;
+
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * The hrefs using each file.
+   */
+  private final Map<Path, Set<String>> hrefsByPath = new ConcurrentHashMap<>();
+
+  /**
+   * The last-modified time of each known file.
+   */
+  private final Map<Path, Long> lastModifieds = new ConcurrentHashMap<>();
+
+  /**
+   * The directories registered with the watch service.
+   */
+  private final Set<Path> watchedDirectories = ConcurrentHashMap.newKeySet();
+
+  private final Object lock = new Object();
+
+  private volatile boolean started;
+  private WatchService watchService; // Protected by lock
+  private ScheduledExecutorService poller; // Protected by lock
+
+  ResourceWatcher(ServletContext servletContext) {
+    this.servletContext = servletContext;
+  }
+
+  /**
+   * Adds a listener that is notified, from the background thread, with the href of each changed resource.
+   */
+  void addListener(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Starts watching.  Does nothing when already started.
+   */
+  void start() {
+    synchronized (lock) {
+      if (!started) {
+        try {
+          WatchService ws = FileSystems.getDefault().newWatchService();
+          Thread thread = new Thread(() -> watch(ws), THREAD_NAME);
+          thread.setDaemon(true);
+          thread.start();
+          watchService = ws;
+        } catch (IOException | UnsupportedOperationException e) {
+          logger.log(Level.WARNING, "Unable to create watch service, polling for changes instead", e);
+          ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+          });
+          executor.scheduleWithFixedDelay(this::poll, POLL_INTERVAL_SECONDS, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+          poller = executor;
+        }
+        started = true;
+      }
+    }
+  }
+
+  /**
+   * Stops watching and forgets all resources.
+   */
+  void stop() {
+    synchronized (lock) {
+      if (started) {
+        started = false;
+        if (watchService != null) {
+          try {
+            watchService.close();
+          } catch (IOException e) {
+            logger.log(Level.WARNING, null, e);
+          }
+          watchService = null;
+        }
+        if (poller != null) {
+          poller.shutdownNow();
+          poller = null;
+        }
+        hrefsByPath.clear();
+        lastModifieds.clear();
+        watchedDirectories.clear();
+      }
+    }
+  }
+
+  /**
+   * Starts watching the given resource, when not already watched.
+   *
+   * @param  href  The resource URI, as registered
+   *
+   * @return  {@code true} when listeners will be notified of any change to the resource, or the resource can only
+   *          change on redeploy.  {@code false} when not started or the resource could not be watched.
+   */
+  boolean watch(String href) {
+    if (!started) {
+      return false;
+    }
+    String resourcePath = ResourcePaths.getResourcePath(href);
+    if (resourcePath == null) {
+      // Not within this application
+      return true;
+    }
+    String realPath = servletContext.getRealPath(resourcePath);
+    if (realPath == null) {
+      // Not in the filesystem, such as within a JAR file
+      return true;
+    }
+    Path path;
+    try {
+      path = Paths.get(realPath);
+    } catch (InvalidPathException e) {
+      logger.log(Level.FINE, null, e);
+      return false;
+    }
+    hrefsByPath.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(href);
+    lastModifieds.computeIfAbsent(path, ResourceWatcher::getLastModified);
+    Path dir = path.getParent();
+    if (dir != null && watchedDirectories.add(dir)) {
+      synchronized (lock) {
+        if (watchService != null) {
+          try {
+            dir.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+            );
+          } catch (IOException | ClosedWatchServiceException e) {
+            logger.log(Level.FINE, null, e);
+            watchedDirectories.remove(dir);
+            return false;
+          }
+        }
+      }
+    }
+    return started;
+  }
+
+  private static long getLastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path).toMillis();
+    } catch (IOException e) {
+      // Missing or unreadable
+      return 0;
+    }
+  }
+
+  /**
+   * Checks a file for change, notifying listeners.
+   */
+  private void checkChanged(Path path) {
+    Set<String> hrefs = hrefsByPath.get(path);
+    if (hrefs != null) {
+      long lastModified = getLastModified(path);
+      Long previous = lastModifieds.put(path, lastModified);
+      if (previous == null || previous != lastModified) {
+        if (logger.isLoggable(Level.FINE)) {
+          logger.fine("changed: " + path + ", hrefs: " + hrefs);
+        }
+        for (String href : hrefs) {
+          fireChanged(href);
+        }
+      }
+    }
+  }
+
+  private void fireChanged(String href) {
+    for (Consumer<String> listener : listeners) {
+      try {
+        listener.accept(href);
+      } catch (RuntimeException e) {
+        logger.log(Level.SEVERE, null, e);
+      }
+    }
+  }
+
+  private void watch(WatchService ws) {
+    try {
+      while (true) {
+        WatchKey key = ws.take();
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // Events lost, check everything
+            lastModifieds.keySet().forEach(this::checkChanged);
+          } else {
+            checkChanged(dir.resolve((Path) event.context()));
+          }
+        }
+        if (!key.reset()) {
+          // Directory no longer accessible, will be re-registered when next watched
+          watchedDirectories.remove(dir);
+        }
+      }
+    } catch (ClosedWatchServiceException e) {
+      // Stopped
+    } catch (InterruptedException e) {
+      // Restore the interrupted status
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      logger.log(Level.SEVERE, null, e);
+    }
+  }
+
+  private void poll() {
+    try {
+      lastModifieds.keySet().forEach(this::checkChanged);
+    } catch (RuntimeException e) {
+      // Keep polling
+      logger.log(Level.SEVERE, null, e);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.web.resources.registry.Script;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Combines consecutive scripts with the same position, async, defer, and crossorigin attributes into
+ * {@linkplain Bundles bundles}.  Since the attributes must match, async scripts are only bundled with other async
+ * scripts.
+ */
+final class ScriptBundler extends Bundler<Script> implements Renderer.ScriptOptimizer {
+
+  ScriptBundler(UrlCache urlCache, Bundles bundles) {
+    super(urlCache, bundles, Bundles.Type.SCRIPT);
+  }
+
+  @Override
+  String getUri(Script script) {
+    return script.getUri();
+  }
+
+  @Override
+  boolean isSameAttributes(Script script1, Script script2) {
+    return
+        script1.getPosition() == script2.getPosition()
+            && script1.isAsync() == script2.isAsync()
+            && script1.isDefer() == script2.isDefer()
+            && Objects.equals(script1.getCrossorigin(), script2.getCrossorigin());
+  }
+
+  @Override
+  Script newBundle(Script first, String uri) {
+    return Script.builder()
+        .uri(uri)
+        .position(first.getPosition())
+        .async(first.isAsync())
+        .defer(first.isDefer())
+        .crossorigin(first.getCrossorigin())
+        .build();
+  }
+
+  @Override
+  public List<Script> optimize(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      Script.Position position,
+      List<Script> scripts
+  ) throws IOException {
+    return bundle(request, response, scripts);
+  }
+
+  @Override
+  public List<Script> optimizeCached(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      Script.Position position,
+      List<Script> scripts
+  ) throws IOException {
+    return bundleCached(request, response, scripts);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.web.resources.registry.Script;
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Replaces scripts within this application with their {@linkplain Minified minified} content.
+ */
+final class ScriptMinifier extends Minifier<Script> implements Renderer.ScriptOptimizer {
+
+  ScriptMinifier(ServletContext servletContext, UrlCache urlCache, Bundles bundles, Minified minified) {
+    super(servletContext, urlCache, bundles, minified, Bundles.Type.SCRIPT);
+  }
+
+  @Override
+  String getUri(Script script) {
+    return script.getUri();
+  }
+
+  @Override
+  Script newMinified(Script original, String uri) {
+    return Script.builder()
+        .uri(uri)
+        .position(original.getPosition())
+        .async(original.isAsync())
+        .defer(original.isDefer())
+        .crossorigin(original.getCrossorigin())
+        .build();
+  }
+
+  @Override
+  public List<Script> optimize(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      Script.Position position,
+      List<Script> scripts
+  ) throws IOException {
+    return minify(request, response, scripts);
+  }
+
+  @Override
+  public List<Script> optimizeCached(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      Script.Position position,
+      List<Script> scripts
+  ) throws IOException {
+    return minifyCached(request, response, scripts);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.web.resources.registry.Style;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Combines consecutive styles with the same media, crossorigin, and disabled attributes into
+ * {@linkplain Bundles bundles}.  A style that uses {@code @import} may only start a bundle, since {@code @import}
+ * is ignored by browsers after other rules.
+ */
+final class StyleBundler extends Bundler<Style> implements Renderer.StyleOptimizer {
+
+  StyleBundler(UrlCache urlCache, Bundles bundles) {
+    super(urlCache, bundles, Bundles.Type.STYLE);
+  }
+
+  @Override
+  String getUri(Style style) {
+    return style.getUri();
+  }
+
+  @Override
+  boolean isSameAttributes(Style style1, Style style2) {
+    return
+        Objects.equals(style1.getMedia(), style2.getMedia())
+            && Objects.equals(style1.getCrossorigin(), style2.getCrossorigin())
+            && style1.isDisabled() == style2.isDisabled();
+  }
+
+  @Override
+  boolean startsBundle(String resourcePath, String url, boolean cachedOnly) throws IOException {
+    return getBundles().usesImport(resourcePath, url, cachedOnly);
+  }
+
+  @Override
+  Style newBundle(Style first, String uri) {
+    return Style.builder()
+        .uri(uri)
+        .media(first.getMedia())
+        .crossorigin(first.getCrossorigin())
+        .disabled(first.isDisabled())
+        .build();
+  }
+
+  @Override
+  public List<Style> optimize(HttpServletRequest request, HttpServletResponse response, List<Style> styles)
+      throws IOException {
+    return bundle(request, response, styles);
+  }
+
+  @Override
+  public List<Style> optimizeCached(HttpServletRequest request, HttpServletResponse response, List<Style> styles)
+      throws IOException {
+    return bundleCached(request, response, styles);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.web.resources.registry.Style;
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Replaces styles within this application with their {@linkplain Minified minified} content.
+ */
+final class StyleMinifier extends Minifier<Style> implements Renderer.StyleOptimizer {
+
+  StyleMinifier(ServletContext servletContext, UrlCache urlCache, Bundles bundles, Minified minified) {
+    super(servletContext, urlCache, bundles, minified, Bundles.Type.STYLE);
+  }
+
+  @Override
+  String getUri(Style style) {
+    return style.getUri();
+  }
+
+  @Override
+  Style newMinified(Style original, String uri) {
+    return Style.builder()
+        .uri(uri)
+        .direction(original.getDirection())
+        .media(original.getMedia())
+        .crossorigin(original.getCrossorigin())
+        .disabled(original.isDisabled())
+        .build();
+  }
+
+  @Override
+  public List<Style> optimize(HttpServletRequest request, HttpServletResponse response, List<Style> styles)
+      throws IOException {
+    return minify(request, response, styles);
+  }
+
+  @Override
+  public List<Style> optimizeCached(HttpServletRequest request, HttpServletResponse response, List<Style> styles)
+      throws IOException {
+    return minifyCached(request, response, styles);
+  }
+}
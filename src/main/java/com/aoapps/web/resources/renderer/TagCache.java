@@ -0,0 +1,119 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.encoding.EncodingContext;
+import com.aoapps.html.any.AnyDocument;
+import com.aoapps.html.any.Content;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Caches the serialized text of tags, so a tag is written with a single {@linkplain Content#unsafe(java.lang.Object)
+ * unsafe} call instead of through the fluent API.
+ *
+ * <p>The text of a tag is captured the first time it is written through the fluent API, so escaping is always
+ * performed by the fluent API.  Captured text is keyed by the {@linkplain EncodingContext#getDoctype() doctype} and
+ * {@linkplain EncodingContext#getSerialization() serialization} of the document along with every attribute of the
+ * tag, including its built URL, so a new entry is used whenever the resource or its last-modified changes.  Tags
+ * with a URL changed by {@linkplain javax.servlet.http.HttpServletResponse#encodeURL(java.lang.String) response
+ * encoding}, such as a session ID added by URL rewriting, are not cached, since each session would add its own
+ * entries.</p>
+ *
+ * <p>Cached text cannot follow the current indentation of a document, so tags are only cached for documents that
+ * neither {@linkplain AnyDocument#getIndent() indent} nor {@linkplain AnyDocument#getAutonli() automatically add
+ * newlines}.  Tags for other documents are always written through the fluent API.</p>
+ */
+final class TagCache {
+
+  /**
+   * The maximum number of tags retained.
+   */
+  private static final int MAX_TAGS = 1000;
+
+  /**
+   * Writes a tag through the fluent API.
+   */
+  @FunctionalInterface
+  interface TagWriter {
+    void write() throws IOException;
+  }
+
+  private final LruCache<List<Object>, String> tags = new LruCache<>(MAX_TAGS);
+
+  /**
+   * Writes a tag, using its cached text when available.
+   *
+   * @param  attributes  Every value that affects the serialized tag, other than the doctype and serialization
+   * @param  writer  Writes the tag through the fluent API to the given content
+   */
+  void write(Content<?, ?> content, List<Object> attributes, TagWriter writer) throws IOException {
+    AnyDocument<?> document = content.getDocument();
+    if (!isCacheable(document)) {
+      writer.write();
+      return;
+    }
+    List<Object> key = getKey(document, attributes);
+    String tag = tags.get(key);
+    if (tag == null) {
+      tag = capture(document, writer);
+      tags.put(key, tag);
+    }
+    content.unsafe(tag);
+  }
+
+  /**
+   * Checks if the text of tags may be cached for a document, which is when it neither indents nor automatically
+   * adds newlines.
+   */
+  static boolean isCacheable(AnyDocument<?> document) {
+    return !document.getIndent() && !document.getAutonli();
+  }
+
+  /**
+   * Gets the key of a tag, which adds the doctype and serialization of the document to its attributes.
+   */
+  static List<Object> getKey(AnyDocument<?> document, List<Object> attributes) {
+    EncodingContext encodingContext = document.encodingContext;
+    return Arrays.asList(encodingContext.getDoctype(), encodingContext.getSerialization(), attributes);
+  }
+
+  /**
+   * Captures the text of a tag as written by the fluent API, without writing it to the document.
+   */
+  static String capture(AnyDocument<?> document, TagWriter writer) throws IOException {
+    Writer out = document.getUnsafe();
+    StringWriter capture = new StringWriter();
+    document.setOut(capture);
+    try {
+      writer.write();
+    } finally {
+      document.setOut(out);
+    }
+    return capture.toString();
+  }
+}
@@ -0,0 +1,357 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import com.aoapps.net.EmptyURIParameters;
+import com.aoapps.servlet.lastmodified.AddLastModified;
+import com.aoapps.servlet.lastmodified.LastModifiedUtil;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Caches the URLs built for resources, including any last-modified parameter.
+ *
+ * <p>URLs are built without {@linkplain HttpServletResponse#encodeURL(java.lang.String) response encoding}, which
+ * is applied on each use.  This allows the cached URL to be shared between all requests within the same context
+ * path, while still supporting URL rewriting, such as adding a session ID.</p>
+ *
+ * <p>Entries expire after {@link #MAX_AGE_NANOS}, so a modified resource is picked-up shortly after
+ * it changes.  When the {@link ResourceWatcher} is started, entries for watched resources do not expire and are
+ * instead {@linkplain #invalidate(java.lang.String) invalidated} when the resource changes.</p>
+ *
+ * <p>When {@link Fingerprints} are started, the last-modified parameter is replaced by a
+ * {@linkplain Renderer#FINGERPRINT_PARAM fingerprint parameter} once the fingerprint has been computed.  The URL
+ * with the last-modified parameter is still built each time an entry expires, and along with the modification time
+ * of a resource that is not watched, is the {@linkplain #getVersion(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.lang.String) version}
+ * of the fingerprint, so resources that are not watched are fingerprinted again when they change.</p>
+ */
+final class UrlCache {
+
+  /**
+   * The maximum amount of time a built URL is used before it is re-built.
+   */
+  private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static final class Key {
+
+    private final String contextPath;
+    private final String href;
+
+    private Key(String contextPath, String href) {
+      this.contextPath = contextPath;
+      this.href = href;
+    }
+
+    @Override
+    public int hashCode() {
+      return contextPath.hashCode() * 31 + href.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return href.equals(other.href) && contextPath.equals(other.contextPath);
+    }
+  }
+
+  private static final class Entry {
+
+    private final String url;
+    private final String version;
+    private final boolean watched;
+    private final long expires;
+
+    private Entry(String url, String version, boolean watched, long expires) {
+      this.url = url;
+      this.version = version;
+      this.watched = watched;
+      this.expires = expires;
+    }
+
+    private boolean isValid(long now) {
+      return watched || now - expires < 0;
+    }
+  }
+
+  /**
+   * Builds the URL for a resource, without response encoding.
+   */
+  @FunctionalInterface
+  interface Builder {
+    String build(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        String href,
+        AddLastModified addLastModified
+    ) throws IOException;
+  }
+
+  /**
+   * Builds URLs without response encoding, so the result may be shared between requests.
+   */
+  private static final class UnencodedResponse extends HttpServletResponseWrapper {
+
+    private UnencodedResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public String encodeURL(String url) {
+      return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+      return url;
+    }
+  }
+
+  private final ServletContext servletContext;
+
+  private final ResourceWatcher watcher;
+
+  private final Fingerprints fingerprints;
+
+  private final Metrics metrics;
+
+  private final Builder builder;
+
+  private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+
+  /**
+   * Incremented on each invalidation, to detect an invalidation while a URL is being built.
+   */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  UrlCache(ServletContext servletContext, ResourceWatcher watcher, Fingerprints fingerprints, Metrics metrics) {
+    this(
+        servletContext,
+        watcher,
+        fingerprints,
+        metrics,
+        (request, response, href, addLastModified) -> buildURL(servletContext, request, response, href, addLastModified)
+    );
+  }
+
+  /**
+   * @param  builder  Builds URLs, which is {@link LastModifiedUtil} outside of tests
+   */
+  UrlCache(
+      ServletContext servletContext,
+      ResourceWatcher watcher,
+      Fingerprints fingerprints,
+      Metrics metrics,
+      Builder builder
+  ) {
+    this.servletContext = servletContext;
+    this.watcher = watcher;
+    this.fingerprints = fingerprints;
+    this.metrics = metrics;
+    this.builder = builder;
+  }
+
+  /**
+   * Builds the URL for the given resource, using a cached value when available.
+   *
+   * @param  href  The resource URI, not {@code null}
+   *
+   * @return  The URL, with response encoding applied
+   */
+  String buildURL(HttpServletRequest request, HttpServletResponse response, String href) throws IOException {
+    long start = System.nanoTime();
+    String url = getURL(request, response, href);
+    if (url != null) {
+      url = response.encodeURL(url);
+    }
+    metrics.urlTime.record(System.nanoTime() - start);
+    return url;
+  }
+
+  /**
+   * Gets the URL for the given resource, using a cached value when available.
+   * {@linkplain Bundles#isBundle(java.lang.String) Bundles} and
+   * {@linkplain Minified#isMinified(java.lang.String) minified content} are already versioned and are only prefixed
+   * with the context path.
+   *
+   * @param  href  The resource URI, not {@code null}
+   *
+   * @return  The URL, without response encoding
+   */
+  String getURL(HttpServletRequest request, HttpServletResponse response, String href) throws IOException {
+    Entry entry = getEntry(request, response, href);
+    return (entry == null) ? null : entry.url;
+  }
+
+  /**
+   * Gets the version of the given resource, which changes whenever its content changes.  This is the URL with any
+   * last-modified parameter, even when the URL is fingerprinted, so the version of a changed resource is known
+   * before its new fingerprint is computed.  Since a last-modified parameter is not added to every resource, the
+   * version of a resource that is not watched also includes its modification time.
+   *
+   * @param  href  The resource URI, not {@code null}
+   *
+   * @return  The version or {@code null} when the URL cannot be built or the resource is not watched and its
+   *          modification time is unknown, such as when not found
+   */
+  String getVersion(HttpServletRequest request, HttpServletResponse response, String href) throws IOException {
+    Entry entry = getEntry(request, response, href);
+    return (entry == null) ? null : entry.version;
+  }
+
+  private Entry getEntry(HttpServletRequest request, HttpServletResponse response, String href) throws IOException {
+    if (Bundles.isBundle(href) || Minified.isMinified(href)) {
+      String url = request.getContextPath() + href;
+      return new Entry(url, url, true, 0);
+    }
+    Key key = new Key(request.getContextPath(), href);
+    long now = System.nanoTime();
+    Entry entry = cache.get(key);
+    if (entry != null && entry.isValid(now)) {
+      metrics.urlHits.increment();
+    } else {
+      metrics.urlMisses.increment();
+      // Watch before building, so any change while building is seen
+      long version = invalidations.get();
+      boolean watched = watcher.watch(href);
+      String lastModifiedUrl = builder.build(request, response, href, AddLastModified.AUTO);
+      if (lastModifiedUrl == null) {
+        return null;
+      }
+      // Re-built once the fingerprint is computed.  The version changes with the resource, so a resource that
+      // changes without being watched is fingerprinted again.
+      String resourceVersion = watched ? lastModifiedUrl : getUnwatchedVersion(href, lastModifiedUrl);
+      String fingerprint = fingerprints.get(href, resourceVersion);
+      String url;
+      if (fingerprint == null) {
+        url = lastModifiedUrl;
+      } else {
+        url = builder.build(request, response, href, AddLastModified.FALSE);
+        if (url == null) {
+          return null;
+        }
+        url = addFingerprint(url, fingerprint);
+      }
+      entry = new Entry(url, resourceVersion, watched, now + MAX_AGE_NANOS);
+      cache.put(key, entry);
+      if (invalidations.get() != version) {
+        // Invalidated while building, the URL may be stale
+        cache.remove(key, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Gets the version of a resource that is not watched, which adds its modification time to the last-modified URL.
+   * Resources not in the filesystem, such as within a JAR file, do not change without a redeploy.
+   *
+   * @return  The version or {@code null} when the modification time is unknown
+   */
+  private String getUnwatchedVersion(String href, String lastModifiedUrl) {
+    String resourcePath = ResourcePaths.getResourcePath(href);
+    String realPath = (resourcePath == null) ? null : servletContext.getRealPath(resourcePath);
+    if (realPath == null) {
+      return lastModifiedUrl;
+    }
+    try {
+      return lastModifiedUrl + '\n' + Files.getLastModifiedTime(Paths.get(realPath)).toMillis();
+    } catch (IOException | InvalidPathException | SecurityException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Builds the URL for the given resource, without response encoding.
+   */
+  private static String buildURL(
+      ServletContext servletContext,
+      HttpServletRequest request,
+      HttpServletResponse response,
+      String href,
+      AddLastModified addLastModified
+  ) throws IOException {
+    return LastModifiedUtil.buildURL(
+        servletContext,
+        request,
+        new UnencodedResponse(response),
+        "/", // TODO: contextPath here to handle ../ breaking out of application?
+        // TODO: All buildUrl add contextPath to servlet path to support ../ outside of application generally?
+        // TODO: / is prefixed with contextPath, so due to lack of normalization: /../ would effectively be relative to the current contextPath
+        href,
+        EmptyURIParameters.getInstance(),
+        addLastModified,
+        false,
+        false
+    );
+  }
+
+  /**
+   * Adds the fingerprint parameter to a URL, before any fragment.
+   * The fingerprint is URL-safe and is not encoded.
+   */
+  private static String addFingerprint(String url, String fingerprint) {
+    int fragmentPos = url.indexOf('#');
+    String base = fragmentPos == -1 ? url : url.substring(0, fragmentPos);
+    StringBuilder sb = new StringBuilder(url.length() + Renderer.FINGERPRINT_PARAM.length() + fingerprint.length() + 2);
+    sb.append(base)
+        .append(base.indexOf('?') == -1 ? '?' : '&')
+        .append(Renderer.FINGERPRINT_PARAM)
+        .append('=')
+        .append(fingerprint);
+    if (fragmentPos != -1) {
+      sb.append(url, fragmentPos, url.length());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Removes all cached URLs for the given resource.
+   *
+   * @param  href  The resource URI
+   */
+  void invalidate(String href) {
+    invalidations.incrementAndGet();
+    cache.keySet().removeIf(key -> key.href.equals(href));
+  }
+
+  /**
+   * Removes all cached URLs.
+   */
+  void clear() {
+    cache.clear();
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.aoapps.web.resources.registry.Group;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Tests {@link ActivationCache}.
+ */
+public class ActivationCacheTest {
+
+  private static final Group.Name A = new Group.Name("a");
+  private static final Group.Name B = new Group.Name("b");
+  private static final Group.Name C = new Group.Name("c");
+
+  private static Map<Group.Name, Boolean> activations(Object... pairs) {
+    Map<Group.Name, Boolean> map = new LinkedHashMap<>();
+    for (int i = 0; i < pairs.length; i += 2) {
+      map.put((Group.Name) pairs[i], (Boolean) pairs[i + 1]);
+    }
+    return map;
+  }
+
+  @Test
+  public void testAppliesInOrder() {
+    ActivationCache cache = new ActivationCache();
+    List<Map<Group.Name, Boolean>> registries = Arrays.asList(
+        activations(A, true, B, true),
+        activations(B, false, C, true)
+    );
+    assertEquals(new HashSet<>(Arrays.asList(A, C)), cache.resolve(registries, null));
+    assertEquals(
+        new HashSet<>(Arrays.asList(B, C)),
+        cache.resolve(registries, activations(A, false, B, true, C, null))
+    );
+  }
+
+  @Test
+  public void testEmpty() {
+    ActivationCache cache = new ActivationCache();
+    assertSame(Collections.emptySet(), cache.resolve(Collections.emptyList(), null));
+    assertSame(Collections.emptySet(), cache.resolve(Collections.singletonList(activations(A, false)), null));
+  }
+
+  @Test
+  public void testEqualBitsShareInstance() {
+    ActivationCache cache = new ActivationCache();
+    Set<Group.Name> groups = cache.resolve(Collections.singletonList(activations(A, true, B, true)), null);
+    assertSame(groups, cache.resolve(Collections.singletonList(activations(B, true, A, true)), null));
+    assertSame(groups, cache.resolve(Collections.emptyList(), activations(A, true, C, false, B, true)));
+    assertSame(
+        groups,
+        cache.resolve(Collections.singletonList(activations(C, true)), activations(A, true, B, true, C, false))
+    );
+  }
+
+  @Test
+  public void testOverflowResolvesUncached() {
+    ActivationCache cache = new ActivationCache();
+    Map<Group.Name, Boolean> fill = new LinkedHashMap<>();
+    for (int i = 0; i < 10000; i++) {
+      fill.put(new Group.Name("fill-" + i), false);
+    }
+    assertSame(Collections.emptySet(), cache.resolve(Collections.singletonList(fill), null));
+    Set<Group.Name> expected = new HashSet<>(Arrays.asList(A, B));
+    Set<Group.Name> first = cache.resolve(Collections.emptyList(), activations(A, true, B, true));
+    Set<Group.Name> second = cache.resolve(Collections.emptyList(), activations(A, true, B, true));
+    assertEquals(expected, first);
+    assertEquals(expected, second);
+    // Not interned once IDs are exhausted, so further caches must compare by equality
+    assertNotSame(first, second);
+    try {
+      first.add(C);
+      fail("Expected unmodifiable");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link Bundles#rewriteCss(java.lang.String, java.lang.String, java.lang.String)}.
+ */
+public class BundlesTest {
+
+  private static void assertRewrite(String expected, String css) {
+    assertEquals(expected, Bundles.rewriteCss("/ctx", "/css/a.css", css));
+  }
+
+  @Test
+  public void testRewritesRelativeUrls() {
+    assertRewrite("a{background:url(/ctx/css/img/b.png)}", "a{background:url(img/b.png)}");
+    assertRewrite("a{background:url(\"/ctx/img/b.png\")}", "a{background:url(\"../img/b.png\")}");
+    assertRewrite("a{background:url('/ctx/css/b.png?v=1#x')}", "a{background:url( 'b.png?v=1#x' )}");
+    assertRewrite("a{background:url(/ctx/css/a$1.png)}", "a{background:url(a$1.png)}");
+  }
+
+  @Test
+  public void testLeavesOtherUrls() {
+    for (String url : new String[] {
+        "/img/b.png", "#f", "//cdn.example.com/b.png", "http://example.com/b.png", "data:image/png;base64,AAAA", ""
+    }) {
+      String css = "a{background:url(" + url + ")}";
+      assertRewrite(css, css);
+    }
+  }
+
+  @Test
+  public void testRewritesImports() {
+    assertRewrite("@import \"/ctx/css/b.css\";", "@import \"b.css\";");
+    assertRewrite("@import '/ctx/b.css' screen;", "@import '../b.css' screen;");
+    assertRewrite("@import url(/ctx/css/b.css);", "@import url(b.css);");
+    assertRewrite("@import \"/b.css\";", "@import \"/b.css\";");
+  }
+
+  @Test
+  public void testStripsLeadingCharset() {
+    assertRewrite("\na{color:red}", "@charset \"UTF-8\";\na{color:red}");
+    assertRewrite("a{color:red}", "@charset 'UTF-8' ;a{color:red}");
+    // Only allowed at the start, so left in place elsewhere
+    assertRewrite(" @charset \"UTF-8\";", " @charset \"UTF-8\";");
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * Tests {@link ContentStore}.
+ */
+public class ContentStoreTest {
+
+  /**
+   * Reverses the content, so encoded variants are distinguishable.
+   */
+  private static final Renderer.ContentEncoder REVERSE = new Renderer.ContentEncoder() {
+    @Override
+    public String getName() {
+      return "reverse";
+    }
+
+    @Override
+    public String getExtension() {
+      return ".rev";
+    }
+
+    @Override
+    public byte[] encode(byte[] content) {
+      byte[] encoded = new byte[content.length];
+      for (int i = 0; i < content.length; i++) {
+        encoded[i] = content[content.length - 1 - i];
+      }
+      return encoded;
+    }
+  };
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] bytes) {
+    return (bytes == null) ? null : new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static List<String> list(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test
+  public void testNameGuard() {
+    assertEquals(Bundles.Type.STYLE, ContentStore.getType("a-B_0.css"));
+    assertEquals(Bundles.Type.SCRIPT, ContentStore.getType("a-B_0.js"));
+    for (String name : Arrays.asList(
+        "", ".css", "a.txt", "a.css.gz", "../a.css", "..\\a.css", "a/b.css", "/a.css", "a.css/", "a%2F.css", "a .css"
+    )) {
+      assertNull(name, ContentStore.getType(name));
+    }
+  }
+
+  @Test
+  public void testInvalidNamesDoNotLeaveDirectory() throws IOException {
+    Path parent = Files.createTempDirectory("ContentStoreTest");
+    try {
+      Path directory = Files.createDirectory(parent.resolve("store"));
+      Files.write(parent.resolve("outside.css"), bytes("secret"));
+      ContentStore store = new ContentStore(directory, Collections.singletonList(REVERSE));
+      assertNull(store.getContent("../outside.css"));
+      assertNull(store.getContent("../outside.css", REVERSE));
+      assertFalse(store.contains("../outside.css"));
+      try {
+        store.store("../evil.css", bytes("evil"));
+        fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        // Expected
+      }
+      assertEquals(Arrays.asList("outside.css", "store"), list(parent));
+      assertEquals(Collections.emptyList(), list(directory));
+    } finally {
+      delete(parent);
+    }
+  }
+
+  @Test
+  public void testStoreWritesContentAndVariants() throws IOException {
+    Path directory = Files.createTempDirectory("ContentStoreTest");
+    try {
+      ContentStore store = new ContentStore(directory, Collections.singletonList(REVERSE));
+      assertFalse(store.contains("a.css"));
+      assertNull(store.getContent("a.css"));
+      store.store("a.css", bytes("abc"));
+      assertTrue(store.contains("a.css"));
+      // No temporary files remain after the atomic move
+      assertEquals(Arrays.asList("a.css", "a.css.rev"), list(directory));
+      assertEquals("abc", string(Files.readAllBytes(directory.resolve("a.css"))));
+      assertEquals("cba", string(Files.readAllBytes(directory.resolve("a.css.rev"))));
+      assertEquals("abc", string(store.getContent("a.css")));
+      assertEquals("cba", string(store.getContent("a.css", REVERSE)));
+      // Persists across instances, such as after a restart
+      ContentStore restarted = new ContentStore(directory, Collections.singletonList(REVERSE));
+      assertTrue(restarted.contains("a.css"));
+      assertEquals("abc", string(restarted.getContent("a.css")));
+      assertEquals("cba", string(restarted.getContent("a.css", REVERSE)));
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  public void testVariantWrittenWhenFirstNeeded() throws IOException {
+    Path directory = Files.createTempDirectory("ContentStoreTest");
+    try {
+      new ContentStore(directory, Collections.emptyList()).store("b.js", bytes("xyz"));
+      assertEquals(Collections.singletonList("b.js"), list(directory));
+      // Encoder added after the content was stored
+      ContentStore store = new ContentStore(directory, Collections.singletonList(REVERSE));
+      assertNull(store.getContent("c.js", REVERSE));
+      assertEquals("zyx", string(store.getContent("b.js", REVERSE)));
+      assertEquals(Arrays.asList("b.js", "b.js.rev"), list(directory));
+      assertEquals("zyx", string(Files.readAllBytes(directory.resolve("b.js.rev"))));
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  public void testDisabled() throws IOException {
+    ContentStore store = new ContentStore(null, Collections.emptyList());
+    assertFalse(store.isEnabled());
+    assertFalse(store.contains("a.css"));
+    assertNull(store.getContent("a.css"));
+    try {
+      store.store("a.css", bytes("abc"));
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+  }
+}
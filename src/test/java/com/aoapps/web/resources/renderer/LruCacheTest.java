@@ -0,0 +1,154 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+/**
+ * Tests {@link LruCache}.
+ */
+public class LruCacheTest {
+
+  private static int count(LruCache<Integer, Integer> cache, int keys) {
+    int count = 0;
+    for (int key = 0; key < keys; key++) {
+      Integer value = cache.get(key);
+      if (value != null) {
+        assertEquals(key, (int) value);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Waits longer than the minimum time between updates of the last-used time.
+   */
+  private static void pause() throws InterruptedException {
+    Thread.sleep(5);
+  }
+
+  @Test
+  public void testInvalidMaxSize() {
+    try {
+      new LruCache<>(0);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedToSevenEighths() throws InterruptedException {
+    LruCache<Integer, Integer> cache = new LruCache<>(8);
+    for (int key = 0; key < 8; key++) {
+      cache.put(key, key);
+      pause();
+    }
+    assertEquals(8, count(cache, 8));
+    pause();
+    // Use the eldest, so the next eldest are evicted instead
+    assertEquals(0, (int) cache.get(0));
+    pause();
+    cache.put(8, 8);
+    assertEquals(7, count(cache, 9));
+    assertEquals(0, (int) cache.get(0));
+    assertNull(cache.get(1));
+    assertNull(cache.get(2));
+    assertEquals(8, (int) cache.get(8));
+  }
+
+  @Test
+  public void testConcurrentPutsStayBounded() throws InterruptedException {
+    final int maxSize = 100;
+    final int threads = 8;
+    final int perThread = 10000;
+    LruCache<Integer, Integer> cache = new LruCache<>(maxSize);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Throwable> failures = new ArrayList<>();
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int first = t * perThread;
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+          for (int key = first; key < first + perThread; key++) {
+            cache.put(key, key);
+            Integer value = cache.get(key - 1);
+            if (value != null && value != key - 1) {
+              throw new AssertionError("Wrong value for " + (key - 1) + ": " + value);
+            }
+          }
+        } catch (Throwable e) {
+          synchronized (failures) {
+            failures.add(e);
+          }
+        }
+      });
+      worker.start();
+      workers.add(worker);
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertEquals(new ArrayList<Throwable>(), failures);
+    int keys = threads * perThread;
+    // Other threads do not wait for eviction, so may have briefly exceeded the maximum
+    int size = count(cache, keys);
+    assertTrue("size = " + size, size > 0 && size <= maxSize + threads);
+    // A single put beyond the maximum evicts down to seven eighths
+    int key = keys;
+    do {
+      cache.put(key, key);
+      key++;
+      size++;
+    } while (size <= maxSize);
+    assertEquals(maxSize * 7 / 8, count(cache, keys + maxSize + 1));
+  }
+
+  @Test
+  public void testRemove() {
+    LruCache<Integer, Integer> cache = new LruCache<>(10);
+    for (int key = 0; key < 6; key++) {
+      cache.put(key, key);
+    }
+    cache.remove(0);
+    assertNull(cache.get(0));
+    cache.removeIf(key -> key % 2 == 1);
+    assertEquals(2, count(cache, 6));
+    assertEquals(2, (int) cache.get(2));
+    assertEquals(4, (int) cache.get(4));
+    cache.clear();
+    assertEquals(0, count(cache, 6));
+  }
+}
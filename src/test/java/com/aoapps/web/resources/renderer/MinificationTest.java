@@ -0,0 +1,150 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link Minification}.
+ */
+public class MinificationTest {
+
+  private static void assertCss(String expected, String css) {
+    assertEquals(expected, Minification.css(css));
+  }
+
+  private static void assertJs(String expected, String js) {
+    assertEquals(expected, Minification.javascript(js));
+  }
+
+  @Test
+  public void testCssWhitespaceAndComments() {
+    assertCss("a{color:red}b>c{margin:0 auto}", "a {\n  color: red;\n}\n/* comment */\nb > c { margin: 0  auto; }\n");
+  }
+
+  @Test
+  public void testCssKeepsLicense() {
+    assertCss("/*! license */ a{color:red}", "/*! license */\na { color: red; }");
+  }
+
+  @Test
+  public void testCssStringsUnchanged() {
+    assertCss("a:before{content:\"a  ;  b\"}", "a:before { content: \"a  ;  b\"; }");
+    assertCss("a{background:url(a  b.png)}", "a { background: url(a  b.png); }");
+  }
+
+  @Test
+  public void testCssCommentIsNotWhitespace() {
+    assertCss(".a.b{color:red}", ".a/**/.b { color: red; }");
+    assertCss(".a .b{color:red}", ".a /**/.b { color: red; }");
+    assertCss(".a .b{color:red}", ".a/**/ .b { color: red; }");
+    assertCss("a{margin:1px/**/2px}", "a { margin: 1px/**/2px; }");
+  }
+
+  @Test
+  public void testJsWhitespaceAndComments() {
+    assertJs("var a=b+c;function f(x){return x;}", "var a = b + c; // comment\nfunction f ( x ) {\n  return x;\n}\n");
+  }
+
+  @Test
+  public void testJsKeepsLicense() {
+    assertJs("/*! license */\nvar a;", "/*! license */\nvar  a;");
+  }
+
+  @Test
+  public void testJsHashbang() {
+    assertJs("#!/usr/bin/env node\nfoo();", "#!/usr/bin/env node\nfoo ( );");
+  }
+
+  @Test
+  public void testJsStringsUnchanged() {
+    assertJs("var s=\"a  b\",t='c  d';", "var s = \"a  b\", t = 'c  d';");
+    assertJs("s='a // b /* c';", "s = 'a // b /* c';");
+  }
+
+  @Test
+  public void testJsStringLineContinuation() {
+    assertJs("s='a\\\n  b';", "s = 'a\\\n  b';");
+    assertJs("s='a\\\r\n  b';", "s = 'a\\\r\n  b';");
+  }
+
+  @Test
+  public void testJsRegexContainingQuotes() {
+    assertJs("var q=/\"/g,msg=\"hello   world\";", "var q = /\"/g, msg = \"hello   world\";");
+    assertJs("x=/it's/.test(y)?'a  b':c;", "x = /it's/.test(y) ? 'a  b' : c;");
+    assertJs("x=/`/.test(y)?'a  b':c;", "x = /`/.test(y) ? 'a  b' : c;");
+  }
+
+  @Test
+  public void testJsRegexUnchanged() {
+    assertJs("r=/[/]  x/g;", "r = /[/]  x/g;");
+    assertJs("r=/a\\/  b/;", "r = /a\\/  b/;");
+    assertJs("return/a  b/.test(s);", "return /a  b/.test(s);");
+    assertJs("x=/a/g in y;", "x = /a/g in y;");
+  }
+
+  @Test
+  public void testJsRegexAfterParenthesis() {
+    assertJs("if(x)/a  b/.test(s);", "if (x) /a  b/.test(s);");
+    assertJs("if(x)/a  b/.test(s) // c(\nfoo();", "if (x) /a  b/.test(s) // c(\nfoo ( );");
+  }
+
+  @Test
+  public void testJsDivision() {
+    assertJs("a=b/c/d;", "a = b / c / d;");
+    assertJs("a=x[0]/2/y.z;", "a = x[0] / 2 / y.z;");
+    assertJs("a=(b+c)/ 2 + '/  x';", "a = (b + c) / 2 + '/  x';");
+    assertJs("a=b/ /c  d/.source;", "a = b / /c  d/.source;");
+  }
+
+  @Test
+  public void testJsTemplateLiterals() {
+    assertJs("s=`a  ${b + \"  c\"}  d`;", "s = `a  ${b + \"  c\"}  d`;");
+    assertJs("s=`a  ${`b  ${c}`}\n  d`;t=1;", "s = `a  ${`b  ${c}`}\n  d`;\nt = 1;");
+  }
+
+  @Test
+  public void testJsTemplateWithSlash() {
+    assertJs("s=`${a / b}  x`;\nt  =  1;", "s = `${a / b}  x`;\nt  =  1;");
+    assertJs("s=`${a.replace(/`/g, '')}  x`;\nt  =  1;", "s = `${a.replace(/`/g, '')}  x`;\nt  =  1;");
+  }
+
+  @Test
+  public void testJsAutomaticSemicolonInsertion() {
+    assertJs("a=b\n(c)", "a = b\n(c)");
+    assertJs("return\nx", "return\nx");
+    assertJs("a\n++b", "a\n++b");
+    assertJs("return\nx", "return /*\n*/ x");
+    assertJs("{a()}", "{\n  a()\n}");
+    assertJs("f(a,b)", "f(a,\nb)");
+  }
+
+  @Test
+  public void testJsOperatorsKeptApart() {
+    assertJs("a+ +b;c- -d;e+ ++f;", "a + +b; c - -d; e + ++f;");
+    assertJs("a=x.y;b=1 .toString();", "a = x.y; b = 1 .toString();");
+  }
+}
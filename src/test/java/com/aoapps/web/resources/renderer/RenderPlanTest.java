@@ -0,0 +1,106 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import org.junit.Test;
+
+/**
+ * Tests {@link RenderPlan.Key}.
+ */
+public class RenderPlanTest {
+
+  @Test
+  public void testComparesSnapshotsByIdentity() {
+    Object a = new Object();
+    Object b = new Object();
+    RenderPlan.Key key = new RenderPlan.Key("filter", new Object[] {a, b});
+    assertEquals(key, new RenderPlan.Key("filter", new Object[] {a, b}));
+    assertEquals(key.hashCode(), new RenderPlan.Key("filter", new Object[] {a, b}).hashCode());
+    assertFalse(key.equals(new RenderPlan.Key("other", new Object[] {a, b})));
+    assertFalse(key.equals(new RenderPlan.Key("filter", new Object[] {b, a})));
+    assertFalse(key.equals(new RenderPlan.Key("filter", new Object[] {a})));
+    assertFalse(
+        new RenderPlan.Key("filter", new Object[] {Collections.emptyList()})
+            .equals(new RenderPlan.Key("filter", new Object[] {Collections.emptySet()}))
+    );
+  }
+
+  @Test
+  public void testWeakKeyEqualsWhileReachable() {
+    Object a = new Object();
+    RenderPlan.Key key = new RenderPlan.Key("filter", new Object[] {a});
+    RenderPlan.Key weak = key.toWeak(new ReferenceQueue<>());
+    assertEquals(key, weak);
+    assertEquals(weak, key);
+    assertEquals(key.hashCode(), weak.hashCode());
+    LruCache<RenderPlan.Key, String> cache = new LruCache<>(10);
+    cache.put(weak, "plan");
+    assertEquals("plan", cache.get(new RenderPlan.Key("filter", new Object[] {a})));
+    Reference.reachabilityFence(a);
+  }
+
+  /**
+   * Adds a plan keyed weakly by a snapshot that is no longer referenced on return.
+   */
+  private static RenderPlan.Key putCollectable(LruCache<RenderPlan.Key, String> cache, ReferenceQueue<Object> queue) {
+    RenderPlan.Key weak = new RenderPlan.Key("filter", new Object[] {new Object()}).toWeak(queue);
+    cache.put(weak, "plan");
+    return weak;
+  }
+
+  @Test
+  public void testWeakKeyRemovedAfterCollection() throws InterruptedException {
+    ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    LruCache<RenderPlan.Key, String> cache = new LruCache<>(10);
+    Object retained = new Object();
+    RenderPlan.Key retainedKey = new RenderPlan.Key("filter", new Object[] {retained});
+    cache.put(retainedKey.toWeak(queue), "retained");
+    RenderPlan.Key weak = putCollectable(cache, queue);
+    Reference<?> ref = null;
+    for (int i = 0; i < 100 && ref == null; i++) {
+      System.gc();
+      ref = queue.remove(100);
+    }
+    assertNotNull("snapshot not collected", ref);
+    assertTrue(ref instanceof RenderPlan.Key.WeakSnapshot);
+    RenderPlan.Key collected = ((RenderPlan.Key.WeakSnapshot) ref).getKey();
+    assertSame(weak, collected);
+    // A collected snapshot no longer matches anything but the key itself, which is still able to remove its plan
+    assertFalse(collected.equals(retainedKey));
+    cache.remove(collected);
+    assertNull(queue.poll());
+    assertEquals("retained", cache.get(retainedKey));
+    Reference.reachabilityFence(retained);
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests {@link Renderer#getContentEncoder(java.util.List, java.util.Enumeration)}.
+ */
+public class RendererTest {
+
+  private static Renderer.ContentEncoder encoder(String name) {
+    return new Renderer.ContentEncoder() {
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public String getExtension() {
+        return '.' + name;
+      }
+
+      @Override
+      public byte[] encode(byte[] content) {
+        return content;
+      }
+    };
+  }
+
+  private static final Renderer.ContentEncoder BR = encoder("br");
+  private static final Renderer.ContentEncoder GZIP = encoder("gzip");
+  private static final List<Renderer.ContentEncoder> ENCODERS = Arrays.asList(BR, GZIP);
+
+  private static Renderer.ContentEncoder select(String... headers) {
+    return Renderer.getContentEncoder(ENCODERS, Collections.enumeration(Arrays.asList(headers)));
+  }
+
+  @Test
+  public void testFirstAcceptableInEncoderOrder() {
+    assertSame(BR, select("gzip, br"));
+    assertSame(GZIP, select("gzip"));
+    assertSame(GZIP, select("deflate", "GZip;q=0.5"));
+    assertSame(BR, select(" br ; q=1 "));
+  }
+
+  @Test
+  public void testZeroQualityIsNotAcceptable() {
+    assertSame(GZIP, select("br;q=0, gzip"));
+    assertSame(GZIP, select("br;Q=0.000, gzip;q=0.001"));
+    assertNull(select("br;q=0, gzip;q=0"));
+    assertNull(select("gzip;q=0;foo=bar"));
+    assertNull(select("gzip;q=invalid"));
+  }
+
+  @Test
+  public void testWildcard() {
+    assertSame(BR, select("*"));
+    assertSame(GZIP, select("br;q=0, *"));
+    assertNull(select("*;q=0"));
+    assertSame(BR, select("br, *;q=0"));
+  }
+
+  @Test
+  public void testNoneAcceptable() {
+    assertNull(select());
+    assertNull(select(""));
+    assertNull(select("identity, deflate"));
+    assertNull(Renderer.getContentEncoder(ENCODERS, null));
+    assertNull(Renderer.getContentEncoder(Collections.emptyList(), Collections.enumeration(Arrays.asList("*"))));
+  }
+}
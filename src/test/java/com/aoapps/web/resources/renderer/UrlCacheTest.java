@@ -0,0 +1,191 @@
+/*
+ * ao-web-resources-renderer - Renders HTML for web resource management.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-web-resources-renderer.
+ *
+ * ao-web-resources-renderer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-web-resources-renderer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-web-resources-renderer.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.web.resources.renderer;
+
+import static org.junit.Assert.assertEquals;
+
+import com.aoapps.servlet.lastmodified.AddLastModified;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Test;
+
+/**
+ * Tests {@link UrlCache}.
+ */
+public class UrlCacheTest {
+
+  /**
+   * Longer than the maximum age of entries that are not watched.
+   */
+  private static final long EXPIRE_MILLIS = 1100;
+
+  /**
+   * Creates an implementation of an interface that returns the given context path and otherwise does nothing.
+   */
+  private static <T> T stub(Class<T> iface, String contextPath) {
+    return iface.cast(Proxy.newProxyInstance(
+        iface.getClassLoader(),
+        new Class<?>[] {iface},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getContextPath":
+              return contextPath;
+            case "equals":
+              return proxy == args[0];
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "toString":
+              return iface.getSimpleName();
+            default:
+              Class<?> type = method.getReturnType();
+              if (type == boolean.class) {
+                return false;
+              }
+              if (type == int.class) {
+                return 0;
+              }
+              if (type == long.class) {
+                return 0L;
+              }
+              return null;
+          }
+        }
+    ));
+  }
+
+  private static final ServletContext SERVLET_CONTEXT = stub(ServletContext.class, "/ctx");
+
+  private static final HttpServletResponse RESPONSE = stub(HttpServletResponse.class, null);
+
+  private static HttpServletRequest request(String contextPath) {
+    return stub(HttpServletRequest.class, contextPath);
+  }
+
+  private static final HttpServletRequest REQUEST = request("/ctx");
+
+  /**
+   * Creates a cache that builds a new URL on each build, numbered by the given counter.
+   */
+  private static UrlCache newUrlCache(ResourceWatcher watcher, AtomicInteger builds, Runnable whileBuilding) {
+    return new UrlCache(
+        SERVLET_CONTEXT,
+        watcher,
+        new Fingerprints(SERVLET_CONTEXT, null, null, Fingerprints.Kind.FINGERPRINT),
+        new Metrics(),
+        (request, response, href, addLastModified) -> {
+          assertEquals(AddLastModified.AUTO, addLastModified);
+          whileBuilding.run();
+          return request.getContextPath() + href + "?build=" + builds.incrementAndGet();
+        }
+    );
+  }
+
+  @Test
+  public void testUnwatchedExpires() throws Exception {
+    AtomicInteger builds = new AtomicInteger();
+    // Not started, so nothing is watched
+    UrlCache urlCache = newUrlCache(new ResourceWatcher(SERVLET_CONTEXT), builds, () -> { });
+    assertEquals("/ctx/a.css?build=1", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+    assertEquals("/ctx/a.css?build=1", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+    assertEquals("/ctx/a.css?build=1", urlCache.getVersion(REQUEST, RESPONSE, "/a.css"));
+    Thread.sleep(EXPIRE_MILLIS);
+    assertEquals("/ctx/a.css?build=2", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+    assertEquals("/ctx/a.css?build=2", urlCache.getVersion(REQUEST, RESPONSE, "/a.css"));
+  }
+
+  @Test
+  public void testWatchedDoesNotExpire() throws Exception {
+    AtomicInteger builds = new AtomicInteger();
+    ResourceWatcher watcher = new ResourceWatcher(SERVLET_CONTEXT);
+    watcher.start();
+    try {
+      // Not in the filesystem, so watched as only changing on redeploy
+      UrlCache urlCache = newUrlCache(watcher, builds, () -> { });
+      assertEquals("/ctx/a.css?build=1", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+      Thread.sleep(EXPIRE_MILLIS);
+      assertEquals("/ctx/a.css?build=1", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+      // Only invalidation rebuilds
+      urlCache.invalidate("/b.css");
+      assertEquals("/ctx/a.css?build=1", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+      urlCache.invalidate("/a.css");
+      assertEquals("/ctx/a.css?build=2", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+      assertEquals("/ctx/a.css?build=2", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+    } finally {
+      watcher.stop();
+    }
+  }
+
+  @Test
+  public void testInvalidationWhileBuildingIsNotCached() throws Exception {
+    AtomicInteger builds = new AtomicInteger();
+    ResourceWatcher watcher = new ResourceWatcher(SERVLET_CONTEXT);
+    watcher.start();
+    try {
+      UrlCache[] urlCache = {null};
+      urlCache[0] = newUrlCache(watcher, builds, () -> {
+        if (builds.get() == 0) {
+          // Changed after the URL started building, so the first URL may be stale
+          urlCache[0].invalidate("/a.css");
+        }
+      });
+      assertEquals("/ctx/a.css?build=1", urlCache[0].getURL(REQUEST, RESPONSE, "/a.css"));
+      assertEquals("/ctx/a.css?build=2", urlCache[0].getURL(REQUEST, RESPONSE, "/a.css"));
+      assertEquals("/ctx/a.css?build=2", urlCache[0].getURL(REQUEST, RESPONSE, "/a.css"));
+    } finally {
+      watcher.stop();
+    }
+  }
+
+  @Test
+  public void testCachedPerContextPath() throws Exception {
+    AtomicInteger builds = new AtomicInteger();
+    ResourceWatcher watcher = new ResourceWatcher(SERVLET_CONTEXT);
+    watcher.start();
+    try {
+      UrlCache urlCache = newUrlCache(watcher, builds, () -> { });
+      assertEquals("/ctx/a.css?build=1", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+      assertEquals("/other/a.css?build=2", urlCache.getURL(request("/other"), RESPONSE, "/a.css"));
+      assertEquals("/ctx/a.css?build=1", urlCache.getURL(REQUEST, RESPONSE, "/a.css"));
+      urlCache.invalidate("/a.css");
+      assertEquals("/other/a.css?build=3", urlCache.getURL(request("/other"), RESPONSE, "/a.css"));
+    } finally {
+      watcher.stop();
+    }
+  }
+
+  @Test
+  public void testBundlesAndMinifiedAreNotBuilt() throws Exception {
+    AtomicInteger builds = new AtomicInteger();
+    UrlCache urlCache = newUrlCache(new ResourceWatcher(SERVLET_CONTEXT), builds, () -> { });
+    String bundle = Bundles.PATH_PREFIX + "abc.css";
+    String minified = Minified.PATH_PREFIX + "abc.js";
+    assertEquals("/ctx" + bundle, urlCache.getURL(REQUEST, RESPONSE, bundle));
+    assertEquals("/ctx" + bundle, urlCache.getVersion(REQUEST, RESPONSE, bundle));
+    assertEquals("/ctx" + minified, urlCache.getURL(REQUEST, RESPONSE, minified));
+    assertEquals(0, builds.get());
+  }
+}